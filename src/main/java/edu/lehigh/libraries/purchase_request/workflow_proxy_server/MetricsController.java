@@ -0,0 +1,125 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.ExecutorMetrics;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.VirtualThreadPinningMonitor;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.CircuitBreakers;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcResponseCache;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcTokenProvider;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiter;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiters;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.amazon_axesso.AmazonAxessoQuotaMonitor;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners.ListenerDispatcher;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira.JiraWebhookQueue;
+
+@RestController
+@ConditionalOnWebApplication
+public class MetricsController {
+
+    private final ExecutorMetrics executorMetrics;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+    private final ListenerDispatcher listenerDispatcher;
+    private final ObjectProvider<JiraWebhookQueue> webhookQueue;
+    private final RateLimiters rateLimiters;
+    private final CircuitBreakers circuitBreakers;
+    private final ObjectProvider<AmazonAxessoQuotaMonitor> quotaMonitor;
+    private final ObjectProvider<OclcTokenProvider> oclcTokenProvider;
+    private final ObjectProvider<OclcResponseCache> oclcResponseCache;
+
+    MetricsController(ExecutorMetrics executorMetrics, ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor,
+        ListenerDispatcher listenerDispatcher, ObjectProvider<JiraWebhookQueue> webhookQueue,
+        RateLimiters rateLimiters, CircuitBreakers circuitBreakers,
+        ObjectProvider<AmazonAxessoQuotaMonitor> quotaMonitor, ObjectProvider<OclcTokenProvider> oclcTokenProvider,
+        ObjectProvider<OclcResponseCache> oclcResponseCache) {
+
+        this.executorMetrics = executorMetrics;
+        this.pinningMonitor = pinningMonitor;
+        this.listenerDispatcher = listenerDispatcher;
+        this.webhookQueue = webhookQueue;
+        this.rateLimiters = rateLimiters;
+        this.circuitBreakers = circuitBreakers;
+        this.quotaMonitor = quotaMonitor;
+        this.oclcTokenProvider = oclcTokenProvider;
+        this.oclcResponseCache = oclcResponseCache;
+    }
+
+    @GetMapping("/metrics/executors")
+    Map<String, ExecutorMetrics.Snapshot> executors() {
+        return executorMetrics.snapshot();
+    }
+
+    @GetMapping("/metrics/listeners")
+    Map<String, ListenerDispatcher.Snapshot> listeners() {
+        return listenerDispatcher.snapshot();
+    }
+
+    /**
+     * Only providers that have been called since startup are listed.
+     */
+    @GetMapping("/metrics/rate-limits")
+    Map<String, RateLimiter.Snapshot> rateLimits() {
+        return rateLimiters.snapshot();
+    }
+
+    /**
+     * Keyed by host, or "oclc".  Only dependencies that have been called since startup are listed.
+     */
+    @GetMapping("/metrics/circuit-breakers")
+    Map<String, CircuitBreakers.Snapshot> circuitBreakers() {
+        return circuitBreakers.snapshot();
+    }
+
+    /**
+     * 404 unless Amazon Axesso pricing is enabled.
+     */
+    @GetMapping("/metrics/amazon-axesso-quota")
+    ResponseEntity<AmazonAxessoQuotaMonitor.Snapshot> amazonAxessoQuota() {
+        AmazonAxessoQuotaMonitor monitor = quotaMonitor.getIfAvailable();
+        return monitor == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(monitor.snapshot());
+    }
+
+    /**
+     * Token renewals for each OCLC scope in use.
+     */
+    @GetMapping("/metrics/oclc-tokens")
+    ResponseEntity<OclcTokenProvider.Snapshot> oclcTokens() {
+        OclcTokenProvider provider = oclcTokenProvider.getIfAvailable();
+        return provider == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(provider.snapshot());
+    }
+
+    /**
+     * WorldCat response cache hits, from memory and from the database, and misses.
+     */
+    @GetMapping("/metrics/oclc-cache")
+    ResponseEntity<OclcResponseCache.Snapshot> oclcCache() {
+        OclcResponseCache cache = oclcResponseCache.getIfAvailable();
+        return cache == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(cache.snapshot());
+    }
+
+    /**
+     * 404 unless Jira is the storage backend.
+     */
+    @GetMapping("/metrics/webhooks")
+    ResponseEntity<JiraWebhookQueue.Snapshot> webhooks() {
+        JiraWebhookQueue queue = webhookQueue.getIfAvailable();
+        return queue == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(queue.snapshot());
+    }
+
+    /**
+     * Empty unless virtual threads are enabled.
+     */
+    @GetMapping("/metrics/pinning")
+    Map<String, Long> pinning() {
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        return monitor == null ? Collections.emptyMap() : monitor.getHotspots();
+    }
+
+}
@@ -1,13 +1,26 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import javax.validation.constraints.Pattern;
 
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
@@ -16,17 +29,29 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.model.SearchQuery;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.match.Match;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.match.MatchQuery;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.match.MatchService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.outbox.OutboxEntry;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.outbox.PurchaseRequestOutbox;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.BatchSaveResult;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPage;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -39,19 +64,97 @@ public class WorkflowController {
     private final WorkflowService service;
     private final MatchService matchService;
     private final EnrichmentManager enrichmentManager;
+    private final PurchaseRequestOutbox outbox;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+    private final int PAGE_SIZE;
+    private final int BATCH_MAX_SIZE;
+    private final CacheControl FIELD_OPTIONS_CACHE_CONTROL;
 
     WorkflowController(WorkflowService service, MatchService matchService, 
-        EnrichmentManager enrichmentManager) {
+        EnrichmentManager enrichmentManager, PurchaseRequestOutbox outbox, ObjectMapper objectMapper, 
+        Validator validator, Config config) {
     
         this.service = service;
         this.matchService = matchService;
         this.enrichmentManager = enrichmentManager;
+        this.outbox = outbox;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.PAGE_SIZE = config.getPageSize();
+        this.BATCH_MAX_SIZE = config.getBatchMaxSize();
+        this.FIELD_OPTIONS_CACHE_CONTROL = CacheControl.maxAge(config.getFieldOptionsMaxAge()).cachePrivate();
     }
 
+    /**
+     * Streams all purchase requests as they're loaded from the workflow service a page at a time,
+     * as a JSON array or as newline-delimited JSON if the client accepts application/x-ndjson.
+     *
+     * The first page is loaded before responding, so a storage backend that's down gets an error status.
+     * If a later page fails, NDJSON ends with an error line, and a JSON array is cut off by closing the
+     * connection, so the client can't mistake either for the full list.
+     */
     @GetMapping("/purchase-requests")
-    List<PurchaseRequest> all() {
+    ResponseEntity<StreamingResponseBody> all(
+        @RequestParam(name = "comments", defaultValue = "false") boolean includeComments,
+        @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+
         log.debug("Request: GET /purchase-requests");
-        return service.findAll();
+        boolean ndjson = accept != null && accept.contains(NDJSON_VALUE);
+        PurchaseRequestPage firstPage = service.findPage(null, PAGE_SIZE, includeComments);
+        StreamingResponseBody body = outputStream -> writeAll(outputStream, firstPage, includeComments, ndjson);
+        return ResponseEntity.ok()
+            .contentType(ndjson ? MediaType.parseMediaType(NDJSON_VALUE) : MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
+    private void writeAll(OutputStream outputStream, PurchaseRequestPage firstPage, boolean includeComments,
+        boolean ndjson) throws IOException {
+
+        byte[] separator = (ndjson ? "\n" : ",").getBytes(StandardCharsets.UTF_8);
+        if (!ndjson) {
+            outputStream.write('[');
+        }
+        boolean first = true;
+        PurchaseRequestPage page = firstPage;
+        while (true) {
+            for (PurchaseRequest purchaseRequest : page.getPurchaseRequests()) {
+                if (!first) {
+                    outputStream.write(separator);
+                }
+                outputStream.write(objectMapper.writeValueAsBytes(purchaseRequest));
+                first = false;
+            }
+            outputStream.flush();
+            if (page.getNextPageToken() == null) {
+                break;
+            }
+            try {
+                page = service.findPage(page.getNextPageToken(), PAGE_SIZE, includeComments);
+            }
+            catch (RuntimeException e) {
+                log.error("Could not load the next page of purchase requests; ending the stream: ", e);
+                if (!ndjson) {
+                    // Rethrown after the response is committed, the container closes the connection
+                    throw e;
+                }
+                if (!first) {
+                    outputStream.write(separator);
+                }
+                outputStream.write(objectMapper.writeValueAsBytes(
+                    Map.of("error", "Could not load all purchase requests")));
+                outputStream.write(separator);
+                return;
+            }
+        }
+        if (!ndjson) {
+            outputStream.write(']');
+        }
+        else if (!first) {
+            outputStream.write(separator);
+        }
     }
 
     @GetMapping("/purchase-requests/{key}")
@@ -78,6 +181,77 @@ public class WorkflowController {
         return new ResponseEntity<PurchaseRequest>(savedRequest, HttpStatus.CREATED);
     }
 
+    /**
+     * Accept a purchase request without waiting for the storage backend.  Poll the returned job for its key.
+     */
+    @PostMapping(path = "/purchase-requests", params = "async=true")
+    ResponseEntity<OutboxEntry> addPurchaseRequestAsync(
+        @Valid @RequestBody PurchaseRequest purchaseRequest,
+        Authentication authentication) {
+
+        log.debug("Request: POST /purchase-requests?async=true " + purchaseRequest);
+        OutboxEntry entry = outbox.submit(purchaseRequest, authentication.getName());
+        return ResponseEntity.accepted()
+            .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/purchase-requests/jobs/{id}").buildAndExpand(entry.getId()).toUri())
+            .body(entry);
+    }
+
+    @GetMapping("/purchase-requests/jobs/{id}")
+    ResponseEntity<OutboxEntry> getJob(@PathVariable Long id, Authentication authentication) {
+        log.debug("Request: GET /purchase-requests/jobs/" + id);
+        OutboxEntry entry = outbox.find(id, authentication.getName());
+        if (entry == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return new ResponseEntity<OutboxEntry>(entry, HttpStatus.OK);
+    }
+
+    /**
+     * Create many purchase requests at once.  Each is validated and saved independently, and the response
+     * reports the outcome of each at its position in the submitted list.
+     */
+    @PostMapping("/purchase-requests/batch")
+    List<BatchSaveResult> addPurchaseRequests(
+        @RequestBody List<PurchaseRequest> purchaseRequests,
+        Authentication authentication) {
+
+        log.debug("Request: POST /purchase-requests/batch with " + purchaseRequests.size() + " purchase requests");
+        if (purchaseRequests.size() > BATCH_MAX_SIZE) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, 
+                "At most " + BATCH_MAX_SIZE + " purchase requests per batch");
+        }
+
+        BatchSaveResult[] results = new BatchSaveResult[purchaseRequests.size()];
+        List<PurchaseRequest> valid = new ArrayList<PurchaseRequest>();
+        List<Integer> validIndexes = new ArrayList<Integer>();
+        for (int i = 0; i < purchaseRequests.size(); i++) {
+            PurchaseRequest purchaseRequest = purchaseRequests.get(i);
+            Set<ConstraintViolation<PurchaseRequest>> violations = purchaseRequest == null 
+                ? Set.of() : validator.validate(purchaseRequest);
+            if (purchaseRequest == null || !violations.isEmpty()) {
+                results[i] = BatchSaveResult.invalid(i, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .collect(Collectors.toList()));
+                continue;
+            }
+            purchaseRequest.setClientName(authentication.getName());
+            valid.add(purchaseRequest);
+            validIndexes.add(i);
+        }
+
+        if (!valid.isEmpty()) {
+            for (BatchSaveResult result : service.saveAll(valid)) {
+                int index = validIndexes.get(result.getIndex());
+                results[index] = result.atIndex(index);
+                if (result.getStatus() == BatchSaveResult.Status.CREATED) {
+                    enrichmentManager.notifyNewPurchaseRequest(result.getPurchaseRequest());
+                }
+            }
+        }
+        return List.of(results);
+    }
+
     @PostMapping("/purchase-requests/{key}/comments")
     ResponseEntity<PurchaseRequest> postComment(
         @PathVariable @Pattern(regexp = PurchaseRequest.KEY_PATTERN) String key, 
@@ -109,21 +283,51 @@ public class WorkflowController {
     }
 
     @GetMapping("/search")
-    List<PurchaseRequest> search(SearchQuery query) {
+    List<PurchaseRequest> search(SearchQuery query, 
+        @RequestParam(name = "comments", defaultValue = "false") boolean includeComments) {
+
         log.debug("Request: GET /search/ " + query);
-        return service.search(query);
+        return service.search(query, includeComments);
     }
 
     @GetMapping("/permanent-location")
-    List<String> getPermanentLocationOptions() {
+    ResponseEntity<List<String>> getPermanentLocationOptions(WebRequest request) {
         log.debug("Request: GET /permanent-location");
-        return service.getPermanentLocationOptions();
+        return fieldOptionsResponse(service.getPermanentLocationOptions(), request);
     }
 
     @GetMapping("/fund-code")
-    List<String> getFundCodeOptions() {
+    ResponseEntity<List<String>> getFundCodeOptions(WebRequest request) {
         log.debug("Request: GET /fund-code");
-        return service.getFundCodeOptions();
+        return fieldOptionsResponse(service.getFundCodeOptions(), request);
+    }
+
+    /**
+     * Every option list, keyed by the path that serves it alone, so a form can load them in one request.
+     */
+    @GetMapping("/field-options")
+    ResponseEntity<Map<String, List<String>>> getFieldOptions(WebRequest request) {
+        log.debug("Request: GET /field-options");
+        Map<String, List<String>> options = new LinkedHashMap<String, List<String>>();
+        options.put("permanent-location", service.getPermanentLocationOptions());
+        options.put("fund-code", service.getFundCodeOptions());
+        return fieldOptionsResponse(options, request);
+    }
+
+    /**
+     * Option lists rarely change, so let clients cache them and revalidate with an ETag.
+     * 
+     * @return null, meaning the response is already complete, if the client's copy is current.
+     */
+    private <T> ResponseEntity<T> fieldOptionsResponse(T options, WebRequest request) {
+        String eTag = "\"" + Integer.toHexString(options.hashCode()) + "\"";
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .cacheControl(FIELD_OPTIONS_CACHE_CONTROL)
+            .eTag(eTag)
+            .body(options);
     }
 
     @GetMapping("/search-matches")
@@ -2,6 +2,7 @@ package edu.lehigh.libraries.purchase_request.workflow_proxy_server.config;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -15,7 +16,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.validation.annotation.Validated;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Configuration
@@ -55,6 +58,31 @@ public class Config {
      */
     private String pricing = null;
 
+    /**
+     * Number of purchase requests to load from the storage backend at a time when listing them all.
+     */
+    private int pageSize = 100;
+
+    /**
+     * Longest a streamed response, like listing all purchase requests, may take before it's cut off.
+     */
+    private Duration streamingTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Maximum number of purchase requests accepted by one batch create.
+     */
+    private int batchMaxSize = 500;
+
+    /**
+     * How long clients may cache field option lists, like fund codes, before checking for changes.
+     */
+    private Duration fieldOptionsMaxAge = Duration.ofMinutes(5);
+
+    /**
+     * Run request handling, enrichment, webhooks and listeners on virtual threads.  Requires Java 21.
+     */
+    private boolean virtualThreads = false;
+
     private Jira jira;
     private Restyaboard restyaboard;
     private CoreData coreData;
@@ -75,6 +103,14 @@ public class Config {
     private GoogleDocs googleDocs;
     private GoogleSheets googleSheets;
     private PostPurchase postPurchase;
+    private Enrichment enrichment = new Enrichment();
+    private Outbox outbox = new Outbox();
+    private RequestCache requestCache = new RequestCache();
+    private SearchIndex searchIndex = new SearchIndex();
+    private HttpClient httpClient = new HttpClient();
+    private RateLimits rateLimits = new RateLimits();
+    private CircuitBreakers circuitBreakers = new CircuitBreakers();
+    private Executors executors = new Executors();
 
     @Getter @Setter
     public static class Jira {
@@ -295,6 +331,48 @@ public class Config {
          */
         private String defaultReporterUsername;
 
+        /**
+         * Send buffered enrichment field updates for an issue once this many fields are pending.
+         */
+        private int enrichmentBatchMaxFields = 20;
+
+        /**
+         * Send buffered enrichment field updates for an issue at most this long after the first one.
+         */
+        private Duration enrichmentBatchMaxDelay = Duration.ofSeconds(30);
+
+        /**
+         * How often to reload the allowed values of fields like fund code and permanent location.
+         */
+        private Duration fieldOptionsRefreshInterval = Duration.ofMinutes(15);
+
+        /**
+         * Webhooks about the same issue arriving within this long of the first are handled once.  0 disables.
+         */
+        private Duration webhookCoalesceWindow = Duration.ofSeconds(2);
+
+        /**
+         * Maximum number of issues with webhooks waiting to be handled.  Webhooks for other issues are refused
+         * beyond this, so Jira retries them.
+         */
+        private int webhookQueueCapacity = 1000;
+
+        /**
+         * How often to check for stored webhooks not handled right away, like those left by a restart.
+         */
+        private Duration webhookPollInterval = Duration.ofSeconds(30);
+
+        /**
+         * Number of times to try handling a webhook before giving up on it.
+         */
+        private int webhookMaxAttempts = 3;
+
+        /**
+         * How long listeners may take to confirm a status notification before it's sent again,
+         * e.g. because a restart lost it.
+         */
+        private Duration notificationRedeliveryDelay = Duration.ofMinutes(30);
+
     }
 
     @Getter @Setter
@@ -329,6 +407,26 @@ public class Config {
          */
         private Long newRequestListId;
 
+        /**
+         * How long the cached board may be used before checking Restyaboard for changes.
+         */
+        private Duration snapshotMaxAge = Duration.ofSeconds(30);
+
+        /**
+         * Maximum number of Restyaboard user IDs to remember, for searches by reporter.
+         */
+        private int userCacheSize = 500;
+
+        /**
+         * How long a user ID is remembered if it isn't refreshed.
+         */
+        private Duration userCacheTtl = Duration.ofHours(1);
+
+        /**
+         * How often to reload the board's lists and the remembered user IDs.
+         */
+        private Duration directoryRefreshInterval = Duration.ofMinutes(10);
+
     }
 
     @Getter @Setter
@@ -400,6 +498,28 @@ public class Config {
          * "dewey" or "lc"
          */
         private String classificationType;
+
+        private ResponseCache responseCache = new ResponseCache();
+
+        @Getter @Setter
+        public static class ResponseCache {
+
+            /**
+             * Maximum number of WorldCat responses to keep cached.  0 disables the cache.
+             */
+            private int maxSize = 5000;
+
+            /**
+             * How long a cached WorldCat response is used before querying again.
+             */
+            private Duration ttl = Duration.ofHours(24);
+
+            /**
+             * How long a cached holdings response is used before querying again.
+             */
+            private Duration holdingsTtl = Duration.ofHours(1);
+
+        }
     }
 
     @Getter @Setter
@@ -477,6 +597,11 @@ public class Config {
          * FOLIO UUID for the identifier type for an OCLC Number
          */
         private String oclcNumberIdentifierType;
+
+        /**
+         * How long to use a FOLIO token before logging in again.  Keep this shorter than the token lifetime.
+         */
+        private Duration tokenRefreshInterval = Duration.ofMinutes(8);
         
     }
 
@@ -573,16 +698,19 @@ public class Config {
         public static class QuotaMonitor {
 
             /**
-             * Number of calls over the quota that are allowed (incurring overage charges).  
+             * Number of calls over the quota that are allowed (incurring overage charges) in each billing window.  
              * 
-             * Note that counting this number resets when the server is restarted.  
-             * 
-             * Also note that the remaining quota is not known until after the first call, 
+             * Note that the remaining quota is not known until after the first call of a window, 
              * so a single call will proceed even if the overage allowed is zero and quota 
              * has already been reached.
              */
             private int overageAllowed;
 
+            /**
+             * Day of the month the RapidAPI quota resets, in UTC.  Days past the end of a short month mean its last day.
+             */
+            private int resetDayOfMonth = 1;
+
         }
 
     }
@@ -802,6 +930,304 @@ public class Config {
 
     }
 
-}
+    @Getter @Setter
+    public static class Enrichment {
+
+        /**
+         * Maximum number of enrichment services to run at the same time.
+         */
+        private int threads = 4;
+
+        /**
+         * Maximum number of purchase requests to enrich at the same time.  Further requests wait in the job queue.
+         */
+        private int workers = 2;
+
+        /**
+         * How often to check the job queue for jobs not started right away, like those left by a restart.
+         */
+        private Duration pollInterval = Duration.ofSeconds(30);
+
+        /**
+         * How long a job may go without progress before it's assumed abandoned and run again.
+         */
+        private Duration lease = Duration.ofMinutes(10);
+
+        /**
+         * Number of times to try a job before marking it failed.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * How long failed jobs are kept before they're deleted.
+         */
+        private Duration retention = Duration.ofDays(7);
+
+    }
+
+    @Getter @Setter
+    public static class Outbox {
+
+        /**
+         * Maximum number of purchase requests submitted asynchronously to save to the backend at the same time.
+         */
+        private int workers = 2;
+
+        /**
+         * How often to check the outbox for entries not started right away, like those left by a restart.
+         */
+        private Duration pollInterval = Duration.ofSeconds(30);
+
+        /**
+         * How long a save may run before it's assumed abandoned and tried again.
+         */
+        private Duration lease = Duration.ofMinutes(5);
+
+        /**
+         * Wait before retrying a failed save, multiplied by the number of attempts so far.
+         */
+        private Duration retryDelay = Duration.ofMinutes(1);
+
+        /**
+         * Number of times to try saving before marking the entry failed.
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * How long finished entries are kept for clients to check their status.
+         */
+        private Duration retention = Duration.ofDays(7);
+
+    }
+
+    @Getter @Setter
+    public static class RequestCache {
+
+        /**
+         * Maximum number of purchase requests to keep cached.  0 disables the cache.
+         */
+        private int maxSize = 1000;
+
+        /**
+         * How long a cached purchase request may be used before it's reloaded from storage.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+    }
+
+    @Getter @Setter
+    public static class SearchIndex {
+
+        /**
+         * Answer searches and listings from a local copy of the purchase requests, rather than the backend.
+         */
+        private boolean enabled = false;
+
+        /**
+         * How often to reload every purchase request from the backend, catching changes made there directly.
+         */
+        private Duration resyncInterval = Duration.ofHours(1);
+
+        /**
+         * Maximum number of purchase requests returned by one search.
+         */
+        private int maxSearchResults = 1000;
+
+    }
+
+    @Getter @Setter
+    public static class HttpClient {
+
+        /**
+         * Maximum number of pooled connections, across all hosts.
+         */
+        private int maxTotal = 100;
+
+        /**
+         * Maximum number of pooled connections to any one host, unless overridden in maxPerHost.
+         */
+        private int maxPerRoute = 20;
+
+        /**
+         * Per-host overrides of maxPerRoute, keyed by host name.
+         */
+        private Map<String, Integer> maxPerHost = new HashMap<String, Integer>();
+
+        /**
+         * How long to wait to establish a connection.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(10);
+
+        /**
+         * How long to wait for a connection from the pool when all are in use.
+         */
+        private Duration connectionRequestTimeout = Duration.ofSeconds(10);
+
+        /**
+         * How long to wait for data from the server.
+         */
+        private Duration socketTimeout = Duration.ofSeconds(25);
 
+        /**
+         * How long to keep an idle connection open when the server doesn't say.  A shorter server Keep-Alive wins.
+         */
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        /**
+         * Idle connections older than this are closed in the background.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(1);
+
+    }
+
+    @Getter @Setter
+    public static class RateLimits {
+
+        /**
+         * Longest a call will wait for its turn before failing instead.
+         */
+        private Duration maxWait = Duration.ofSeconds(30);
+
+        /**
+         * Limits for providers without their own entry in providers.
+         */
+        private RateLimit defaultLimit = new RateLimit(5, 5);
+
+        /**
+         * Per-provider limits, keyed by isbndb, oasis, axesso or doab.
+         */
+        private Map<String, RateLimit> providers = new HashMap<String, RateLimit>(Map.of(
+            "isbndb", new RateLimit(1, 1),
+            "oasis", new RateLimit(2, 2),
+            "axesso", new RateLimit(1, 2),
+            "doab", new RateLimit(2, 4)));
+
+    }
+
+    @Getter @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RateLimit {
+
+        /**
+         * Steady rate of calls allowed, which may be fractional.
+         */
+        private double permitsPerSecond;
+
+        /**
+         * Calls allowed at once after a quiet spell.
+         */
+        private int burst;
+
+    }
+
+    @Getter @Setter
+    public static class CircuitBreakers {
 
+        /**
+         * Turn off to always call external services, however often they fail.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Consecutive failed calls to a service that open its breaker.
+         */
+        private int failureThreshold = 5;
+
+        /**
+         * How long an open breaker refuses calls before letting trial calls through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * Trial calls that must all succeed to close the breaker again.
+         */
+        private int halfOpenCalls = 1;
+
+        /**
+         * Run an enrichment service again later if a breaker refused its calls, rather than skipping it.
+         */
+        private boolean deferEnrichments = true;
+
+        /**
+         * How long after an enrichment job was queued its deferred services may still be run again.
+         * After that they're skipped.
+         */
+        private Duration maxDeferral = Duration.ofHours(1);
+
+    }
+
+    @Getter @Setter
+    public static class Executors {
+
+        /**
+         * Default pool for @Async methods that don't name their own.
+         */
+        private ExecutorPool async = new ExecutorPool(2, 8, 100, RejectionPolicy.CALLER_RUNS);
+
+        /**
+         * Handling of Jira status change webhooks.
+         */
+        private ExecutorPool webhook = new ExecutorPool(2, 4, 500, RejectionPolicy.CALLER_RUNS);
+
+        /**
+         * Notifying workflow service listeners.
+         */
+        private ExecutorPool listener = new ExecutorPool(2, 4, 500, RejectionPolicy.CALLER_RUNS);
+
+        /**
+         * Writing streamed responses, like listing all purchase requests.
+         */
+        private ExecutorPool streaming = new ExecutorPool(2, 8, 100, RejectionPolicy.CALLER_RUNS);
+
+        /**
+         * Number of threads sending delayed emails.
+         */
+        private int emailThreads = 2;
+
+    }
+
+    @Getter @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExecutorPool {
+
+        /**
+         * Threads kept even when idle.
+         */
+        private int coreSize;
+
+        /**
+         * Threads added, beyond the core size, only once the queue is full.
+         */
+        private int maxSize;
+
+        /**
+         * Tasks waiting for a thread.
+         */
+        private int queueCapacity;
+
+        /**
+         * What to do with a task when all threads are busy and the queue is full.
+         */
+        private RejectionPolicy rejectionPolicy;
+
+    }
+
+    public enum RejectionPolicy {
+
+        /** Throw a RejectedExecutionException to the caller. */
+        ABORT,
+
+        /** Run the task on the caller's thread, slowing down the caller. */
+        CALLER_RUNS,
+
+        /** Drop the task. */
+        DISCARD,
+
+        /** Drop the oldest queued task to make room. */
+        DISCARD_OLDEST;
+
+    }
+
+}
@@ -0,0 +1,200 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One executor per kind of work, so a backlog in one (say, a burst of Jira webhooks) can't starve the others.
+ *
+ * Inject a specific executor with @Qualifier and one of the names below.  Unqualified TaskScheduler
+ * injection still gets the general scheduler from ThreadPoolTaskSchedulerConfig.
+ *
+ * With workflow.virtual-threads enabled, the enrichment, webhook and listener executors run each task on its
+ * own virtual thread instead of a pool, since that work is almost all waiting on remote services.
+ */
+@Configuration
+@Slf4j
+public class ExecutorConfig implements AsyncConfigurer {
+
+    public static final String ASYNC = "asyncExecutor";
+    public static final String ENRICHMENT = "enrichmentExecutor";
+    public static final String ENRICHMENT_JOBS = "enrichmentJobExecutor";
+    public static final String OUTBOX = "outboxExecutor";
+    public static final String WEBHOOK = "webhookExecutor";
+    public static final String LISTENER = "listenerExecutor";
+    public static final String STREAMING = "streamingExecutor";
+    public static final String EMAIL = "emailScheduler";
+
+    private final Config config;
+    private final ExecutorMetrics metrics = new ExecutorMetrics();
+
+    ExecutorConfig(Config config) {
+        this.config = config;
+        if (config.isVirtualThreads() && !VirtualThreads.isAvailable()) {
+            throw new IllegalStateException("workflow.virtual-threads requires Java 21 or later, running on "
+                + System.getProperty("java.version"));
+        }
+    }
+
+    @Bean
+    public ExecutorMetrics executorMetrics() {
+        return metrics;
+    }
+
+    @Bean(name = ASYNC)
+    public ThreadPoolTaskExecutor asyncExecutor() {
+        return buildExecutor("Async-", config.getExecutors().getAsync());
+    }
+
+    /**
+     * Individual enrichment services.  The queue is unbounded: the job executor already limits how many passes
+     * run at once, and each pass only submits one task per service.
+     */
+    @Bean(name = ENRICHMENT)
+    public TaskExecutor enrichmentExecutor() {
+        if (config.isVirtualThreads()) {
+            return buildVirtualExecutor("Enrichment-");
+        }
+        int threads = config.getEnrichment().getThreads();
+        return buildExecutor("Enrichment-",
+            new Config.ExecutorPool(threads, threads, Integer.MAX_VALUE, Config.RejectionPolicy.ABORT));
+    }
+
+    /**
+     * Whole enrichment passes, one per worker.  Jobs wait in the database rather than here.
+     */
+    @Bean(name = ENRICHMENT_JOBS)
+    public TaskExecutor enrichmentJobExecutor() {
+        if (config.isVirtualThreads()) {
+            return buildVirtualExecutor("EnrichmentJob-");
+        }
+        int workers = config.getEnrichment().getWorkers();
+        return buildExecutor("EnrichmentJob-",
+            new Config.ExecutorPool(workers, workers, Integer.MAX_VALUE, Config.RejectionPolicy.ABORT));
+    }
+
+    /**
+     * Saving asynchronously submitted purchase requests, one per worker.  Entries wait in the database rather than here.
+     */
+    @Bean(name = OUTBOX)
+    public TaskExecutor outboxExecutor() {
+        if (config.isVirtualThreads()) {
+            return buildVirtualExecutor("Outbox-");
+        }
+        int workers = config.getOutbox().getWorkers();
+        return buildExecutor("Outbox-",
+            new Config.ExecutorPool(workers, workers, Integer.MAX_VALUE, Config.RejectionPolicy.ABORT));
+    }
+
+    @Bean(name = WEBHOOK)
+    public TaskExecutor webhookExecutor() {
+        if (config.isVirtualThreads()) {
+            return buildVirtualExecutor("Webhook-");
+        }
+        return buildExecutor("Webhook-", config.getExecutors().getWebhook());
+    }
+
+    @Bean(name = LISTENER)
+    public TaskExecutor listenerExecutor() {
+        if (config.isVirtualThreads()) {
+            return buildVirtualExecutor("Listener-");
+        }
+        return buildExecutor("Listener-", config.getExecutors().getListener());
+    }
+
+    /**
+     * Writing StreamingResponseBody responses, which otherwise get a new thread each.
+     */
+    @Bean(name = STREAMING)
+    public ThreadPoolTaskExecutor streamingExecutor() {
+        return buildExecutor("Streaming-", config.getExecutors().getStreaming());
+    }
+
+    @Bean(name = EMAIL)
+    public ThreadPoolTaskScheduler emailScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(config.getExecutors().getEmailThreads());
+        scheduler.setThreadNamePrefix("Email-");
+        AtomicLong rejections = new AtomicLong();
+        scheduler.setRejectedExecutionHandler(countingHandler(EMAIL, rejections, Config.RejectionPolicy.ABORT));
+        scheduler.initialize();
+        metrics.register(EMAIL, scheduler.getScheduledThreadPoolExecutor(), rejections);
+        return scheduler;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return asyncExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return new SimpleAsyncUncaughtExceptionHandler();
+    }
+
+    private ThreadPoolTaskExecutor buildExecutor(String threadNamePrefix, Config.ExecutorPool pool) {
+        String name = threadNamePrefix.substring(0, threadNamePrefix.length() - 1);
+        AtomicLong rejections = new AtomicLong();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(pool.getCoreSize());
+        executor.setMaxPoolSize(Math.max(pool.getCoreSize(), pool.getMaxSize()));
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(countingHandler(name, rejections, pool.getRejectionPolicy()));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+
+        metrics.register(name, executor.getThreadPoolExecutor(), rejections);
+        log.debug("Executor " + name + " ready: core " + pool.getCoreSize() + ", max " + pool.getMaxSize() 
+            + ", queue " + pool.getQueueCapacity() + ", " + pool.getRejectionPolicy());
+        return executor;
+    }
+
+    private VirtualThreadExecutor buildVirtualExecutor(String threadNamePrefix) {
+        String name = threadNamePrefix.substring(0, threadNamePrefix.length() - 1);
+        VirtualThreadExecutor executor = new VirtualThreadExecutor(name, threadNamePrefix);
+        metrics.register(name, executor);
+        log.debug("Executor " + name + " ready: virtual threads");
+        return executor;
+    }
+
+    private static RejectedExecutionHandler countingHandler(String name, AtomicLong rejections,
+        Config.RejectionPolicy policy) {
+
+        RejectedExecutionHandler delegate;
+        switch (policy) {
+            case CALLER_RUNS:
+                delegate = new ThreadPoolExecutor.CallerRunsPolicy();
+                break;
+            case DISCARD:
+                delegate = new ThreadPoolExecutor.DiscardPolicy();
+                break;
+            case DISCARD_OLDEST:
+                delegate = new ThreadPoolExecutor.DiscardOldestPolicy();
+                break;
+            default:
+                delegate = new ThreadPoolExecutor.AbortPolicy();
+        }
+        return (task, executor) -> {
+            rejections.incrementAndGet();
+            log.warn("Executor " + name + " is saturated, applying " + policy + " to a task.");
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+
+}
@@ -0,0 +1,68 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Queue depth, active threads and rejections for each named executor, for the /metrics/executors endpoint.
+ */
+public class ExecutorMetrics {
+
+    // Registration only happens while the context starts, before any reads.
+    private final Map<String, Supplier<Snapshot>> executors = new LinkedHashMap<String, Supplier<Snapshot>>();
+
+    synchronized void register(String name, ThreadPoolExecutor executor, AtomicLong rejections) {
+        executors.put(name, () -> new Snapshot(
+            executor.getPoolSize(),
+            executor.getCorePoolSize(),
+            executor.getMaximumPoolSize(),
+            executor.getActiveCount(),
+            executor.getQueue().size(),
+            executor.getQueue().remainingCapacity(),
+            executor.getCompletedTaskCount(),
+            rejections.get()));
+    }
+
+    /**
+     * Virtual threads aren't pooled or queued: every running task has its own thread.
+     */
+    synchronized void register(String name, VirtualThreadExecutor executor) {
+        executors.put(name, () -> new Snapshot(
+            executor.getRunning(),
+            0,
+            Integer.MAX_VALUE,
+            executor.getRunning(),
+            0,
+            Integer.MAX_VALUE,
+            executor.getCompleted(),
+            0));
+    }
+
+    public synchronized Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshots = new LinkedHashMap<String, Snapshot>();
+        for (Map.Entry<String, Supplier<Snapshot>> entry : executors.entrySet()) {
+            snapshots.put(entry.getKey(), entry.getValue().get());
+        }
+        return snapshots;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final int poolSize;
+        private final int coreSize;
+        private final int maxSize;
+        private final int activeThreads;
+        private final int queueDepth;
+        private final int queueRemainingCapacity;
+        private final long completedTasks;
+        private final long rejectedTasks;
+    }
+
+}
@@ -2,12 +2,17 @@ package edu.lehigh.libraries.purchase_request.workflow_proxy_server.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 @Configuration
 public class ThreadPoolTaskSchedulerConfig {
 
+    /**
+     * General scheduler for periodic and delayed work.  Primary, since ExecutorConfig defines other schedulers.
+     */
     @Bean
+    @Primary
     public ThreadPoolTaskScheduler threadPoolTaskScheduler(){
         ThreadPoolTaskScheduler threadPoolTaskScheduler = new ThreadPoolTaskScheduler();
         threadPoolTaskScheduler.setPoolSize(10);
@@ -0,0 +1,31 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Handle requests on virtual threads when running with embedded Tomcat.  
+ * Deployed as a war, the servlet container's own connector settings apply instead.
+ */
+@Configuration
+@ConditionalOnProperty(name="workflow.virtual-threads", havingValue="true")
+@ConditionalOnWebApplication
+@Slf4j
+public class VirtualThreadConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> factory.addProtocolHandlerCustomizers(protocolHandler -> {
+            protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("Tomcat-"));
+            log.info("Tomcat is handling requests on virtual threads.");
+        });
+    }
+
+}
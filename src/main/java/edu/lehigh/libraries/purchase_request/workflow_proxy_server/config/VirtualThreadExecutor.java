@@ -0,0 +1,63 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs each task on its own virtual thread.  There's no pool or queue to size; 
+ * running and completed tasks are counted for the /metrics/executors endpoint.
+ */
+@Slf4j
+public class VirtualThreadExecutor implements TaskExecutor, DisposableBean {
+
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    private final String name;
+    private final ExecutorService executor;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+
+    VirtualThreadExecutor(String name, String threadNamePrefix) {
+        this.name = name;
+        this.executor = VirtualThreads.newThreadPerTaskExecutor(threadNamePrefix);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(() -> {
+            running.incrementAndGet();
+            try {
+                task.run();
+            }
+            finally {
+                running.decrementAndGet();
+                completed.incrementAndGet();
+            }
+        });
+    }
+
+    int getRunning() {
+        return running.get();
+    }
+
+    long getCompleted() {
+        return completed.get();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+            log.warn("Executor " + name + " still has " + getRunning() + " tasks running at shutdown.");
+        }
+    }
+
+}
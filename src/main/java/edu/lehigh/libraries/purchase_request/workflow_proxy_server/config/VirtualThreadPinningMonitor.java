@@ -0,0 +1,110 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Finds where virtual threads get pinned to their carrier thread, typically by blocking
+ * inside a synchronized block, which undoes the benefit of virtual threads.
+ *
+ * Listens for the JDK's own jdk.VirtualThreadPinned flight recorder event, and counts pinning by the
+ * innermost frame in this application.  Each new location is logged once.
+ */
+@Service
+@ConditionalOnProperty(name="workflow.virtual-threads", havingValue="true")
+@ConditionalOnWebApplication
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final Duration PINNED_THRESHOLD = Duration.ofMillis(20);
+    private static final String APPLICATION_PACKAGE = "edu.lehigh.libraries.";
+
+    private final Map<String, AtomicLong> hotspots = new ConcurrentHashMap<String, AtomicLong>();
+
+    private AutoCloseable stream;
+
+    /**
+     * The streaming API is Java 14+, so it's reached reflectively to keep compiling for Java 11.
+     */
+    @PostConstruct
+    void start() {
+        try {
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Object newStream = streamClass.getConstructor().newInstance();
+            Object settings = streamClass.getMethod("enable", String.class).invoke(newStream, PINNED_EVENT);
+            Class.forName("jdk.jfr.EventSettings").getMethod("withThreshold", Duration.class)
+                .invoke(settings, PINNED_THRESHOLD);
+            Consumer<RecordedEvent> handler = this::record;
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(newStream, PINNED_EVENT, handler);
+            streamClass.getMethod("startAsync").invoke(newStream);
+            stream = (AutoCloseable)newStream;
+            log.info("Watching for virtual threads pinned longer than " + PINNED_THRESHOLD.toMillis() + "ms.");
+        }
+        catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Could not watch for pinned virtual threads: ", e);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws Exception {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * @return Number of pinning events for each location, most frequent first.
+     */
+    public Map<String, Long> getHotspots() {
+        Map<String, Long> sorted = new LinkedHashMap<String, Long>();
+        hotspots.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()))
+            .forEach(entry -> sorted.put(entry.getKey(), entry.getValue().get()));
+        return sorted;
+    }
+
+    private void record(RecordedEvent event) {
+        String location = locate(event.getStackTrace());
+        AtomicLong count = hotspots.computeIfAbsent(location, key -> new AtomicLong());
+        if (count.getAndIncrement() == 0) {
+            log.warn("Virtual thread pinned for " + event.getDuration().toMillis() + "ms at " + location);
+        }
+    }
+
+    private static String locate(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                return describe(frame);
+            }
+        }
+        return describe(frames.get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() 
+            + ":" + frame.getLineNumber();
+    }
+
+}
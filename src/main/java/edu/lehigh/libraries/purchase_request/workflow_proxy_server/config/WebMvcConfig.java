@@ -1,10 +1,13 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -14,6 +17,23 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 @EnableWebMvc
 public class WebMvcConfig implements WebMvcConfigurer {
 
+  private final AsyncTaskExecutor streamingExecutor;
+  private final Config config;
+
+  WebMvcConfig(@Qualifier(ExecutorConfig.STREAMING) AsyncTaskExecutor streamingExecutor, Config config) {
+    this.streamingExecutor = streamingExecutor;
+    this.config = config;
+  }
+
+  /**
+   * With @EnableWebMvc, the spring.mvc.async properties don't apply, so configure streamed responses here.
+   */
+  @Override
+  public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+    configurer.setTaskExecutor(streamingExecutor);
+    configurer.setDefaultTimeout(config.getStreamingTimeout().toMillis());
+  }
+
   @Override
   public void addResourceHandlers(ResourceHandlerRegistry registry) {
     registry
@@ -0,0 +1,126 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.CircuitBreaker;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One circuit breaker per external dependency: per host for everything sent through SharedHttpClient,
+ * and by name for the rest.  While a dependency's breaker is open, calls to it fail at once with a
+ * CircuitBreaker.OpenException instead of waiting out a timeout.
+ *
+ * Callers that swallow connection errors can still find out a call was refused: track() collects the
+ * dependencies that refused a call on the current thread while it ran.
+ */
+@Service
+@ConditionalOnWebApplication
+@Slf4j
+public class CircuitBreakers {
+
+    public static final String OCLC = "oclc";
+
+    private final Config.CircuitBreakers config;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final ThreadLocal<Set<String>> refusedOnThread = new ThreadLocal<>();
+
+    CircuitBreakers(Config config) {
+        this.config = config.getCircuitBreakers();
+        log.debug("CircuitBreakers ready");
+    }
+
+    public CircuitBreaker get(String dependency) {
+        return breakers.computeIfAbsent(dependency, name ->
+            new CircuitBreaker(name, config.getFailureThreshold(), config.getOpenDuration(), config.getHalfOpenCalls()));
+    }
+
+    /**
+     * @throws CircuitBreaker.OpenException if the dependency's breaker is open.
+     */
+    public CircuitBreaker acquire(String dependency) {
+        CircuitBreaker breaker = get(dependency);
+        if (!config.isEnabled()) {
+            return breaker;
+        }
+        try {
+            breaker.acquire();
+        }
+        catch (CircuitBreaker.OpenException e) {
+            Set<String> refused = refusedOnThread.get();
+            if (refused != null) {
+                refused.add(dependency);
+            }
+            throw e;
+        }
+        return breaker;
+    }
+
+    /**
+     * Make a call through the dependency's breaker.  Any exception counts as a failure.
+     */
+    public <T> T call(String dependency, Callable<T> call) throws Exception {
+        CircuitBreaker breaker = acquire(dependency);
+        T result;
+        try {
+            result = call.call();
+        }
+        catch (Exception e) {
+            breaker.recordFailure();
+            throw e;
+        }
+        breaker.recordSuccess();
+        return result;
+    }
+
+    /**
+     * Run the task, adding to refused the dependencies that refused a call from this thread while it ran,
+     * even if the task then threw.
+     */
+    public void track(Set<String> refused, Runnable task) {
+        Set<String> outer = refusedOnThread.get();
+        refusedOnThread.set(refused);
+        try {
+            task.run();
+        }
+        finally {
+            if (outer == null) {
+                refusedOnThread.remove();
+            }
+            else {
+                outer.addAll(refused);
+                refusedOnThread.set(outer);
+            }
+        }
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> result = new TreeMap<>();
+        for (CircuitBreaker breaker : breakers.values()) {
+            result.put(breaker.getName(), new Snapshot(breaker.getState(), breaker.getConsecutiveFailures(),
+                breaker.getOpened(), breaker.getRejected()));
+        }
+        return result;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+
+        private final CircuitBreaker.State state;
+        private final int consecutiveFailures;
+        private final long opened;
+        private final long rejected;
+
+    }
+
+}
@@ -1,30 +1,38 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
 
 import java.net.URI;
+import java.time.Instant;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.HttpVersion;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
 import org.json.JSONObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
 
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.RetryUtil;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * The one connection to FOLIO, shared by every FOLIO service.
+ *
+ * A single token is used by all of them.  It's replaced by logging in again shortly before it expires,
+ * and immediately if FOLIO rejects it.  The bean is lazy so nothing logs in unless a FOLIO service is configured.
+ */
+@Service
+@Lazy
+@ConditionalOnWebApplication
 @Slf4j
 public class FolioConnection {
 
@@ -34,16 +42,21 @@ public class FolioConnection {
     private static final String TOKEN_HEADER = "x-okapi-token";
 
     private final Config config;
+    private final SharedHttpClient client;
 
-    private CloseableHttpClient client;
+    // A lock rather than synchronized, so a virtual thread logging in doesn't pin its carrier.
+    private final ReentrantLock tokenLock = new ReentrantLock();
+
+    // guarded by tokenLock
     private String token;
+    private Instant tokenRefreshAt;
 
-    public FolioConnection(Config config) throws Exception {
+    FolioConnection(Config config, SharedHttpClient client) throws Exception {
         this.config = config;
+        this.client = client;
 
-        initConnection();
         try {
-            RetryUtil.executeWithRetry("FOLIO authentication", this::initToken);
+            getToken();
         } catch (RuntimeException e) {
             throw new Exception("Failed to connect to FOLIO after retries", e);
         }
@@ -51,16 +64,37 @@ public class FolioConnection {
         log.debug("FOLIO connection ready");
     }
 
-    private void initConnection() {
-        CredentialsProvider provider = new BasicCredentialsProvider();
-        provider.setCredentials(AuthScope.ANY, 
-            new UsernamePasswordCredentials(config.getFolio().getUsername(), config.getFolio().getPassword()));
-        client = HttpClientBuilder.create()
-            .setDefaultCredentialsProvider(provider)
-            .build();                
+    private String getToken() {
+        tokenLock.lock();
+        try {
+            if (token == null || !Instant.now().isBefore(tokenRefreshAt)) {
+                token = RetryUtil.executeWithRetry("FOLIO authentication", this::login);
+                tokenRefreshAt = Instant.now().plus(config.getFolio().getTokenRefreshInterval());
+                log.debug("Logged in to FOLIO; next login at " + tokenRefreshAt);
+            }
+            return token;
+        }
+        finally {
+            tokenLock.unlock();
+        }
     }
 
-    private void initToken() {
+    /**
+     * Forget a token FOLIO rejected, unless another thread has already replaced it.
+     */
+    private void invalidateToken(String rejectedToken) {
+        tokenLock.lock();
+        try {
+            if (rejectedToken.equals(token)) {
+                token = null;
+            }
+        }
+        finally {
+            tokenLock.unlock();
+        }
+    }
+
+    private String login() {
         try {
             String url = config.getFolio().getOkapiBaseUrl() + LOGIN_PATH;
             URI uri = new URIBuilder(url).build();
@@ -77,16 +111,17 @@ public class FolioConnection {
                 .setHeader(TENANT_HEADER, config.getFolio().getTenantId())
                 .setEntity(new StringEntity(postData.toString(), "UTF-8"))
                 .build();
-            CloseableHttpResponse response = client.execute(post);
-            HttpEntity entity = response.getEntity();
-            String responseString = EntityUtils.toString(entity);
-            int responseCode = response.getStatusLine().getStatusCode();
-            log.debug("got auth response from folio with response code: " + responseCode);
-            if (responseCode > 399) {
-                throw new RuntimeException("FOLIO auth failed: " + responseString);
-            }
-
-            token = response.getFirstHeader(TOKEN_HEADER).getValue();
+            return client.execute(post, response -> {
+                HttpEntity entity = response.getEntity();
+                String responseString = EntityUtils.toString(entity);
+                int responseCode = response.getStatusLine().getStatusCode();
+                log.debug("got auth response from folio with response code: " + responseCode);
+                if (responseCode > 399) {
+                    throw new RuntimeException("FOLIO auth failed: " + responseString);
+                }
+
+                return response.getFirstHeader(TOKEN_HEADER).getValue();
+            });
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize FOLIO token", e);
         }
@@ -97,6 +132,25 @@ public class FolioConnection {
     }
 
     public JSONObject executeGet(String url, String queryString, Map<String, String> extraParameters) throws Exception {
+        String usedToken = getToken();
+        JSONObject result = executeGet(url, queryString, extraParameters, usedToken);
+        if (result == null) {
+            log.info("FOLIO rejected the token, logging in again.");
+            invalidateToken(usedToken);
+            result = executeGet(url, queryString, extraParameters, getToken());
+            if (result == null) {
+                throw new Exception("FOLIO rejected a new token.");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The response, or null if the token was rejected.
+     */
+    private JSONObject executeGet(String url, String queryString, Map<String, String> extraParameters, 
+        String token) throws Exception {
+
         RequestBuilder requestBuilder = RequestBuilder.get()
             .setUri(config.getFolio().getOkapiBaseUrl() + url)
             .setHeader(TENANT_HEADER, config.getFolio().getTenantId())
@@ -108,19 +162,22 @@ public class FolioConnection {
             }
         }
         HttpUriRequest getRequest = requestBuilder.build();
-        CloseableHttpResponse response;
-        response = client.execute(getRequest);
-        int responseCode = response.getStatusLine().getStatusCode();
-        if (responseCode > 399) {
-            throw new Exception(response.getStatusLine().getReasonPhrase());
-        }
+        return client.execute(getRequest, response -> {
+            int responseCode = response.getStatusLine().getStatusCode();
+            if (responseCode == HttpStatus.SC_UNAUTHORIZED) {
+                return null;
+            }
+            if (responseCode > 399) {
+                throw new Exception(response.getStatusLine().getReasonPhrase());
+            }
 
-        HttpEntity entity = response.getEntity();
-        String responseString = EntityUtils.toString(entity);
-        log.debug("Got response with code " + response.getStatusLine() + " and entity " + response.getEntity());
+            HttpEntity entity = response.getEntity();
+            String responseString = EntityUtils.toString(entity);
+            log.debug("Got response with code " + response.getStatusLine() + " and entity " + response.getEntity());
 
-        JSONObject jsonObject = new JSONObject(responseString);
-        return jsonObject;
+            JSONObject jsonObject = new JSONObject(responseString);
+            return jsonObject;
+        });
     }
 
     public String sanitize(String raw) {
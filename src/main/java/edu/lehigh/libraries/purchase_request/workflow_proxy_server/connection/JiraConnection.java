@@ -1,15 +1,15 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
-import org.apache.http.auth.AuthScope;
+import org.apache.http.HttpStatus;
 import org.apache.http.auth.Credentials;
 import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
-import org.apache.http.client.config.RequestConfig;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
@@ -18,11 +18,9 @@ import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.auth.BasicScheme;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
@@ -38,35 +36,18 @@ public class JiraConnection {
     private static final String API_PREFIX_V3 = "rest/api/3/";
 
     private final Config config;
+    private final SharedHttpClient client;
 
-    private CloseableHttpClient client;
+    private final Credentials credentials;
 
-    public JiraConnection(Config config) {
+    public JiraConnection(Config config, SharedHttpClient client) {
         this.config = config;
-
-        initConnection();
+        this.client = client;
+        this.credentials = new UsernamePasswordCredentials(config.getJira().getUsername(), config.getJira().getToken());
 
         log.debug("Jira service ready");
     }
 
-    private Credentials credentials;
-
-    private void initConnection() {
-        CredentialsProvider provider = new BasicCredentialsProvider();
-        credentials = new UsernamePasswordCredentials(config.getJira().getUsername(), config.getJira().getToken());
-        provider.setCredentials(AuthScope.ANY, credentials);
-        int timeout = 25000; // milliseconds
-        RequestConfig requestConfig = RequestConfig.custom()
-            .setConnectTimeout(timeout)
-            .setConnectionRequestTimeout(timeout)
-            .setSocketTimeout(timeout)
-            .build();
-        client = HttpClientBuilder.create()
-            .setDefaultCredentialsProvider(provider)
-            .setDefaultRequestConfig(requestConfig)
-            .build();                
-    }
-
     public JsonObject executeGet(String url) throws Exception {
         return executeGet(url, null);
     }
@@ -83,7 +64,7 @@ public class JiraConnection {
         getRequest.addHeader(new BasicScheme().authenticate(credentials, getRequest, null));
 
         log.debug(getRequest.toString());
-        try (CloseableHttpResponse response = client.execute(getRequest)) {
+        return client.execute(getRequest, response -> {
             int responseCode = response.getStatusLine().getStatusCode();
             if (responseCode > 399) {
                 throw new Exception(response.getStatusLine().getReasonPhrase());
@@ -95,7 +76,7 @@ public class JiraConnection {
 
             JsonObject responseObject = JsonParser.parseString(responseString).getAsJsonObject();
             return responseObject;
-        }
+        });
     }
 
     public JsonObject executePost(String url, JsonObject body) throws Exception {
@@ -127,12 +108,15 @@ public class JiraConnection {
 
         log.debug(methodName + " to URL " + url + "; entity: " + body.toString());
         mutation.setEntity(new StringEntity(body.toString(), "UTF-8"));
-        try (CloseableHttpResponse response = client.execute(mutation)) {
+        return client.execute(mutation, response -> {
             int responseCode = response.getStatusLine().getStatusCode();
             if (responseCode > 399) {
                 HttpEntity entity = response.getEntity();
                 if (entity != null) {
                     String responseString = EntityUtils.toString(entity);
+                    if (responseCode == HttpStatus.SC_BAD_REQUEST) {
+                        throw new BadRequestException(responseString);
+                    }
                     throw new Exception(responseString);
                 }
                 else {
@@ -152,7 +136,41 @@ public class JiraConnection {
                 log.debug("Got response with code " + response.getStatusLine() + " and no entity");
                 return null;
             }
+        });
+    }
+
+    /**
+     * Jira refused the request as invalid.  For an issue update, the fields it objected to are named
+     * in the response's "errors" object.
+     */
+    public static class BadRequestException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Set<String> rejectedFields;
+
+        public BadRequestException(String responseString) {
+            super(responseString);
+            this.rejectedFields = parseRejectedFields(responseString);
         }
+
+        public Set<String> getRejectedFields() {
+            return rejectedFields;
+        }
+
+        private static Set<String> parseRejectedFields(String responseString) {
+            try {
+                JsonElement errors = JsonParser.parseString(responseString).getAsJsonObject().get("errors");
+                if (errors != null && errors.isJsonObject()) {
+                    return new HashSet<String>(errors.getAsJsonObject().keySet());
+                }
+            }
+            catch (RuntimeException e) {
+                log.debug("Could not read field errors from Jira response: " + responseString);
+            }
+            return Collections.emptySet();
+        }
+
     }
 
 }
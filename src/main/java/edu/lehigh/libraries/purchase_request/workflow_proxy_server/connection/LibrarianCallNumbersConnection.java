@@ -1,11 +1,8 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
 
 import org.apache.http.HttpEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
 import org.json.JSONArray;
 
@@ -14,15 +11,10 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class LibrarianCallNumbersConnection {
 
-    private CloseableHttpClient client;    
+    private final SharedHttpClient client;
 
-    public LibrarianCallNumbersConnection() {
-        initConnection();
-    }
-
-    private void initConnection() {
-        client = HttpClientBuilder.create()
-            .build();
+    public LibrarianCallNumbersConnection(SharedHttpClient client) {
+        this.client = client;
     }
 
     public JSONArray executeGetForArray(String url) {
@@ -43,10 +35,11 @@ public class LibrarianCallNumbersConnection {
             .setUri(url)
             .build();
 
-        CloseableHttpResponse response = client.execute(getRequest);
-        HttpEntity entity = response.getEntity();
-        String responseString = EntityUtils.toString(entity);
-        return responseString;
+        return client.execute(getRequest, response -> {
+            HttpEntity entity = response.getEntity();
+            String responseString = EntityUtils.toString(entity);
+            return responseString;
+        });
     }
 
 }
@@ -0,0 +1,45 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A WorldCat response kept in the database, so it survives restarts and is shared by every node.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "oclc_response_cache",
+    indexes = @Index(name = "idx_oclc_response_cache_expires_at", columnList = "expires_at"))
+public class OclcCachedResponse {
+
+    /**
+     * SHA-256 of the cache key, which can be longer than an indexed column allows.
+     */
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(name = "cache_key", length = 2000, nullable = false)
+    private String key;
+
+    @Lob
+    @Column(nullable = false)
+    private String body;
+
+    @Column(nullable = false)
+    private Instant fetchedAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+}
@@ -0,0 +1,18 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface OclcCachedResponseRepository extends JpaRepository<OclcCachedResponse, String> {
+
+    @Transactional
+    @Modifying
+    @Query("delete from OclcCachedResponse r where r.expiresAt < :before")
+    int deleteExpiredBefore(@Param("before") Instant before);
+
+}
@@ -0,0 +1,201 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.ExpiringCache;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Successful WorldCat responses, shared by every OclcConnection.
+ *
+ * The same ISBN or title and contributor is looked up by identifiers enrichment, both holdings enrichments
+ * and match searches, and again on every re-enrichment.  Response bodies are cached rather than parsed
+ * objects, so each caller gets its own JsonObject.
+ *
+ * Responses are kept in the database, so they survive restarts and are shared by every node, with the
+ * most recently used also kept in memory.  Holdings change far more often than bibliographic records,
+ * so holdings responses expire sooner.  The database is only an optimization: if it can't be reached,
+ * calls go to WorldCat as if nothing were cached.
+ */
+@Service
+@Lazy
+@ConditionalOnWebApplication
+@Slf4j
+public class OclcResponseCache {
+
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final OclcCachedResponseRepository repository;
+    private final Config.Oclc.ResponseCache config;
+    private final ExpiringCache<String, String> cache;
+
+    private final AtomicLong storedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    OclcResponseCache(Config config, OclcCachedResponseRepository repository, TaskScheduler scheduler) {
+        this.repository = repository;
+        this.config = config.getOclc().getResponseCache();
+        this.cache = new ExpiringCache<String, String>(this.config.getMaxSize(), this.config.getTtl());
+
+        if (isEnabled()) {
+            scheduler.scheduleWithFixedDelay(this::purgeLoggingErrors, Instant.now().plus(PURGE_INTERVAL),
+                PURGE_INTERVAL);
+        }
+        log.debug("OclcResponseCache ready");
+    }
+
+    /**
+     * @return The cached response, or null if there isn't one.
+     */
+    public JsonObject get(String scope, String url) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String key = key(scope, url);
+        String body = cache.get(key);
+        if (body == null) {
+            body = getStored(key);
+        }
+        if (body == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        log.debug("Using cached OCLC response for " + url);
+        return JsonParser.parseString(body).getAsJsonObject();
+    }
+
+    public void put(String scope, String url, String body) {
+        if (!isEnabled()) {
+            return;
+        }
+        String key = key(scope, url);
+        Duration ttl = isHoldings(url) ? config.getHoldingsTtl() : config.getTtl();
+        cache.put(key, body, ttl);
+
+        OclcCachedResponse stored = new OclcCachedResponse();
+        stored.setId(id(key));
+        stored.setKey(key);
+        stored.setBody(body);
+        stored.setFetchedAt(Instant.now());
+        stored.setExpiresAt(stored.getFetchedAt().plus(ttl));
+        try {
+            repository.save(stored);
+        }
+        catch (Exception e) {
+            log.warn("Could not store OCLC response for " + url + ": " + e.getMessage());
+        }
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(cache.size(), cache.getHits(), storedHits.get(), misses.get());
+    }
+
+    private boolean isEnabled() {
+        return config.getMaxSize() > 0;
+    }
+
+    private String getStored(String key) {
+        Optional<OclcCachedResponse> stored;
+        try {
+            stored = repository.findById(id(key));
+        }
+        catch (Exception e) {
+            log.warn("Could not read stored OCLC response: " + e.getMessage());
+            return null;
+        }
+        Instant now = Instant.now();
+        if (stored.isEmpty() || !stored.get().getExpiresAt().isAfter(now) || !key.equals(stored.get().getKey())) {
+            return null;
+        }
+        storedHits.incrementAndGet();
+        cache.put(key, stored.get().getBody(), Duration.between(now, stored.get().getExpiresAt()));
+        return stored.get().getBody();
+    }
+
+    private void purgeLoggingErrors() {
+        try {
+            int deleted = repository.deleteExpiredBefore(Instant.now());
+            if (deleted > 0) {
+                log.debug("Deleted " + deleted + " expired OCLC responses.");
+            }
+        }
+        catch (Exception e) {
+            log.error("Could not delete expired OCLC responses: ", e);
+        }
+    }
+
+    /**
+     * SHA-256 of the key, in hex.
+     */
+    static String id(String key) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+        StringBuilder hex = new StringBuilder(hash.length * 2);
+        for (byte b : hash) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Holdings searches, as opposed to bibliographic ones, by path since every connection uses the same scope.
+     */
+    static boolean isHoldings(String url) {
+        String trimmed = url.trim();
+        int queryStart = trimmed.indexOf('?');
+        String path = queryStart < 0 ? trimmed : trimmed.substring(0, queryStart);
+        return path.contains("holdings");
+    }
+
+    /**
+     * Query parameters are sorted, so the same search built in a different order shares an entry.
+     */
+    static String key(String scope, String url) {
+        String trimmed = url.trim();
+        int queryStart = trimmed.indexOf('?');
+        if (queryStart < 0) {
+            return scope + " " + trimmed;
+        }
+        String[] parameters = trimmed.substring(queryStart + 1).split("&");
+        Arrays.sort(parameters);
+        return scope + " " + trimmed.substring(0, queryStart) + "?" + String.join("&", parameters);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+
+        /** Responses held in memory. */
+        private final int size;
+        /** Lookups answered from memory. */
+        private final long hits;
+        /** Lookups answered from the database. */
+        private final long storedHits;
+        private final long misses;
+
+    }
+
+}
@@ -0,0 +1,223 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.github.scribejava.core.builder.ServiceBuilder;
+import com.github.scribejava.core.builder.api.DefaultApi20;
+import com.github.scribejava.core.model.OAuth2AccessToken;
+import com.github.scribejava.core.oauth.OAuth20Service;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * OCLC client-credentials tokens, one per scope, shared by every OclcConnection.
+ *
+ * Tokens are renewed on the task scheduler ahead of expiry, so request threads only ever read the current token.
+ * The one exception is the first token for a scope, which is fetched when a connection for that scope is created.
+ */
+@Service
+@Lazy
+@ConditionalOnWebApplication
+@Slf4j
+public class OclcTokenProvider {
+
+    private static final long TOKEN_BUFFER_SECONDS = 30;
+
+    // Renew this long before the buffer is reached, leaving room for a retry.
+    private static final long REFRESH_LEAD_SECONDS = 60;
+    private static final long RETRY_DELAY_SECONDS = 30;
+
+    private final Config config;
+    private final TaskScheduler scheduler;
+
+    // guarded by this
+    private final Map<String, ScopedToken> tokens = new HashMap<String, ScopedToken>();
+
+    private final AtomicLong fetches = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong expiredReads = new AtomicLong();
+
+    OclcTokenProvider(Config config, TaskScheduler scheduler) {
+        this.config = config;
+        this.scheduler = scheduler;
+        log.debug("OclcTokenProvider ready");
+    }
+
+    /**
+     * Make sure a token is available for the scope, fetching the first one if needed.
+     */
+    public void register(String scope) {
+        ScopedToken scopedToken;
+        synchronized (this) {
+            scopedToken = tokens.get(scope);
+            if (scopedToken == null) {
+                scopedToken = new ScopedToken(scope, buildService(scope));
+                tokens.put(scope, scopedToken);
+            }
+        }
+        scopedToken.fetchIfAbsent();
+    }
+
+    /**
+     * @return The current token for the scope, without waiting on OCLC.
+     *   Null if no token could be fetched yet; a renewal has been scheduled.
+     */
+    public OAuth2AccessToken getToken(String scope) {
+        ScopedToken scopedToken = getScopedToken(scope);
+        OAuth2AccessToken token = scopedToken.token;
+        if (token == null || scopedToken.isExpired()) {
+            expiredReads.incrementAndGet();
+            log.warn("No current OCLC token for scope " + scope + "; renewal pending.");
+        }
+        return token;
+    }
+
+    public OAuth20Service getService(String scope) {
+        return getScopedToken(scope).service;
+    }
+
+    public Snapshot snapshot() {
+        List<String> scopes;
+        synchronized (this) {
+            scopes = new ArrayList<String>(new TreeSet<String>(tokens.keySet()));
+        }
+        return new Snapshot(scopes, fetches.get(), failures.get(), expiredReads.get());
+    }
+
+    private synchronized ScopedToken getScopedToken(String scope) {
+        ScopedToken scopedToken = tokens.get(scope);
+        if (scopedToken == null) {
+            throw new IllegalStateException("OCLC scope not registered: " + scope);
+        }
+        return scopedToken;
+    }
+
+    private OAuth20Service buildService(String scope) {
+        return new ServiceBuilder(config.getOclc().getWsKey())
+            .apiSecret(config.getOclc().getSecret())
+            .defaultScope(scope)
+            .build(OclcApi.instance());
+    }
+
+    private class ScopedToken {
+
+        private final String scope;
+        private final OAuth20Service service;
+
+        private volatile OAuth2AccessToken token;
+        private volatile long expiration;
+
+        // A lock rather than synchronized, so a virtual thread waiting on OCLC doesn't pin its carrier.
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // guarded by lock
+        private ScheduledFuture<?> nextFetch;
+
+        private ScopedToken(String scope, OAuth20Service service) {
+            this.scope = scope;
+            this.service = service;
+        }
+
+        private boolean isExpired() {
+            return Instant.now().getEpochSecond() >= expiration - TOKEN_BUFFER_SECONDS;
+        }
+
+        private void fetchIfAbsent() {
+            lock.lock();
+            try {
+                if (token == null) {
+                    fetch();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Only one fetch runs at a time per scope.  Each successful fetch schedules the next one.
+         */
+        private void fetch() {
+            lock.lock();
+            try {
+                fetchLocked();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        private void fetchLocked() {
+            fetches.incrementAndGet();
+            Instant next;
+            try {
+                OAuth2AccessToken newToken = service.getAccessTokenClientCredentialsGrant();
+                expiration = Instant.now().getEpochSecond() + newToken.getExpiresIn().intValue();
+                token = newToken;
+                log.debug("Got OCLC token for scope " + scope + ", expires in " + newToken.getExpiresIn() + " seconds");
+                next = Instant.ofEpochSecond(Math.max(expiration - TOKEN_BUFFER_SECONDS - REFRESH_LEAD_SECONDS,
+                    Instant.now().getEpochSecond() + RETRY_DELAY_SECONDS));
+            }
+            catch (Exception e) {
+                failures.incrementAndGet();
+                log.error("Error getting OCLC token for scope " + scope + ": ", e);
+                next = Instant.now().plusSeconds(RETRY_DELAY_SECONDS);
+            }
+            if (nextFetch != null) {
+                nextFetch.cancel(false);
+            }
+            nextFetch = scheduler.schedule(this::fetch, next);
+        }
+
+    }
+
+    private static class OclcApi extends DefaultApi20 {
+
+        private static final String TOKEN_URL = "https://oauth.oclc.org/token";
+
+        private static final OclcApi INSTANCE = new OclcApi();
+        public static OclcApi instance() {
+            return INSTANCE;
+        }
+
+        @Override
+        public String getAccessTokenEndpoint() {
+            return TOKEN_URL;
+        }
+
+        @Override
+        protected String getAuthorizationBaseUrl() {
+            throw new UnsupportedOperationException("No BaseURL needed for Client Credentials API.");
+        }
+
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+
+        private final List<String> scopes;
+        private final long fetches;
+        private final long failures;
+        /** Times a caller got an expired or missing token because renewal hadn't succeeded in time. */
+        private final long expiredReads;
+
+    }
+
+}
@@ -0,0 +1,182 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.TokenBucket;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Paces the calls to one external provider.  Callers wait their turn for a permit instead of failing,
+ * unless the wait would be longer than maxWait, and every response is read for throttling hints.
+ */
+@Slf4j
+public class RateLimiter {
+
+    private static final int STATUS_TOO_MANY_REQUESTS = 429;
+
+    private static final String HEADER_REMAINING = "X-RateLimit-Remaining";
+    private static final String HEADER_RESET = "X-RateLimit-Reset";
+
+    /** When a 429 doesn't say how long to back off. */
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    /** Reset headers larger than this are epoch seconds rather than seconds from now. */
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    private final String name;
+    private final TokenBucket bucket;
+    private final Duration maxWait;
+
+    private final AtomicLong granted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong waiting = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    RateLimiter(String name, TokenBucket bucket, Duration maxWait) {
+        this.name = name;
+        this.bucket = bucket;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * Block until a call to the provider may go out.
+     *
+     * @throws RateLimitException if the wait would be longer than maxWait.
+     */
+    public void acquire() {
+        Duration wait = bucket.reserve();
+        if (wait.compareTo(maxWait) > 0) {
+            bucket.release();
+            rejected.incrementAndGet();
+            throw new RateLimitException("Rate limit for " + name + " needs a wait of " + wait + ", longer than " + maxWait);
+        }
+
+        granted.incrementAndGet();
+        long nanos = wait.toNanos();
+        if (nanos == 0) {
+            return;
+        }
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        waiting.incrementAndGet();
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RateLimitException("Interrupted waiting for a permit for " + name);
+        }
+        finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Learn from a response: slow down on a 429, honour any remaining-calls headers, and otherwise
+     * recover toward the configured rate.
+     *
+     * @return true if the provider throttled the call.
+     */
+    public boolean observe(HttpResponse response) {
+        if (response.getStatusLine().getStatusCode() == STATUS_TOO_MANY_REQUESTS) {
+            Duration retryAfter = parseDelay(response.getFirstHeader(HttpHeaders.RETRY_AFTER), DEFAULT_RETRY_AFTER);
+            throttled.incrementAndGet();
+            log.warn("Throttled by " + name + ", backing off for " + retryAfter);
+            bucket.throttled(retryAfter);
+            return true;
+        }
+
+        Header remaining = response.getFirstHeader(HEADER_REMAINING);
+        if (remaining != null) {
+            try {
+                Duration resetIn = parseDelay(response.getFirstHeader(HEADER_RESET), DEFAULT_RETRY_AFTER);
+                bucket.limitRemaining(Long.parseLong(remaining.getValue().trim()), resetIn);
+            }
+            catch (NumberFormatException e) {
+                log.debug("Ignoring unparseable " + HEADER_REMAINING + " from " + name + ": " + remaining.getValue());
+            }
+        }
+        bucket.succeeded();
+        return false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Snapshot snapshot() {
+        long permits = granted.get();
+        return new Snapshot(
+            bucket.getMaxRate(),
+            bucket.getRate(),
+            bucket.getBurst(),
+            bucket.getAvailable(),
+            permits,
+            rejected.get(),
+            throttled.get(),
+            waiting.get(),
+            TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()),
+            permits == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / permits),
+            TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+    }
+
+    /**
+     * Seconds from now, or epoch seconds for providers that send an absolute reset time.
+     */
+    private Duration parseDelay(Header header, Duration defaultDelay) {
+        if (header == null) {
+            return defaultDelay;
+        }
+        try {
+            long seconds = Long.parseLong(header.getValue().trim());
+            if (seconds > EPOCH_SECONDS_THRESHOLD) {
+                seconds -= Instant.now().getEpochSecond();
+            }
+            return seconds > 0 ? Duration.ofSeconds(seconds) : defaultDelay;
+        }
+        catch (NumberFormatException e) {
+            // Retry-After may also be an HTTP date; not worth parsing for the providers we call.
+            return defaultDelay;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+
+        private final double maxPermitsPerSecond;
+        private final double permitsPerSecond;
+        private final int burst;
+        private final double availablePermits;
+        private final long granted;
+        private final long rejected;
+        private final long throttled;
+        private final long waiting;
+        private final long totalWaitMillis;
+        private final long averageWaitMillis;
+        private final long maxWaitMillis;
+
+    }
+
+    public static class RateLimitException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        RateLimitException(String message) {
+            super(message);
+        }
+
+    }
+
+}
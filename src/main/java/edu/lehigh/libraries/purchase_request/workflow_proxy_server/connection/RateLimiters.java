@@ -0,0 +1,56 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.TokenBucket;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * One rate limiter per external provider, shared by every connection to that provider, so that all
+ * the enrichments calling it together stay under its limit.
+ */
+@Service
+@ConditionalOnWebApplication
+@Slf4j
+public class RateLimiters {
+
+    public static final String ISBN_DB = "isbndb";
+    public static final String OASIS = "oasis";
+    public static final String AMAZON_AXESSO = "axesso";
+    public static final String DOAB = "doab";
+
+    private final Config.RateLimits config;
+    private final Map<String, RateLimiter> limiters = new ConcurrentHashMap<>();
+
+    RateLimiters(Config config) {
+        this.config = config.getRateLimits();
+        log.debug("RateLimiters ready");
+    }
+
+    public RateLimiter get(String provider) {
+        return limiters.computeIfAbsent(provider, this::create);
+    }
+
+    public Map<String, RateLimiter.Snapshot> snapshot() {
+        Map<String, RateLimiter.Snapshot> result = new TreeMap<>();
+        for (RateLimiter limiter : limiters.values()) {
+            result.put(limiter.getName(), limiter.snapshot());
+        }
+        return result;
+    }
+
+    private RateLimiter create(String provider) {
+        Config.RateLimit limit = config.getProviders().getOrDefault(provider, config.getDefaultLimit());
+        log.info("Rate limiting " + provider + " to " + limit.getPermitsPerSecond()
+            + " calls per second, bursts of " + limit.getBurst());
+        TokenBucket bucket = new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst());
+        return new RateLimiter(provider, bucket, config.getMaxWait());
+    }
+
+}
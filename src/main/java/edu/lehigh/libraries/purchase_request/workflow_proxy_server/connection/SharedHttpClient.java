@@ -0,0 +1,200 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.CircuitBreaker;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The one pooled HTTP client used by all connections to external services.
+ *
+ * Connections are kept alive and reused across requests, idle ones are evicted in the background,
+ * and every response is consumed and closed by execute() so its connection always goes back to the pool.
+ */
+@Service
+@ConditionalOnWebApplication
+@Slf4j
+public class SharedHttpClient {
+
+    private static final int MAX_THROTTLED_ATTEMPTS = 3;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final CircuitBreakers circuitBreakers;
+
+    SharedHttpClient(Config config, CircuitBreakers circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+        Config.HttpClient httpConfig = config.getHttpClient();
+
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(httpConfig.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(httpConfig.getMaxPerRoute());
+        for (Map.Entry<String, Integer> entry : httpConfig.getMaxPerHost().entrySet()) {
+            // Routes include the scheme and port, so size both the plain and TLS route for the host.
+            connectionManager.setMaxPerRoute(new HttpRoute(new HttpHost(entry.getKey(), 443, "https")), entry.getValue());
+            connectionManager.setMaxPerRoute(new HttpRoute(new HttpHost(entry.getKey(), 80, "http")), entry.getValue());
+        }
+
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout((int)httpConfig.getConnectTimeout().toMillis())
+            .setConnectionRequestTimeout((int)httpConfig.getConnectionRequestTimeout().toMillis())
+            .setSocketTimeout((int)httpConfig.getSocketTimeout().toMillis())
+            .build();
+
+        long defaultKeepAlive = httpConfig.getKeepAlive().toMillis();
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? Math.min(serverKeepAlive, defaultKeepAlive) : defaultKeepAlive;
+        };
+
+        client = HttpClientBuilder.create()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(keepAliveStrategy)
+            .evictExpiredConnections()
+            .evictIdleConnections(httpConfig.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+            .build();
+
+        log.debug("SharedHttpClient ready");
+    }
+
+    /**
+     * Execute a request and read its response.  The response entity is always fully consumed and the
+     * response closed afterward, whether or not the reader succeeds, so the connection can be reused.
+     *
+     * The request goes through the circuit breaker for its host: an I/O error or a 5xx response counts
+     * as a failure, and while the breaker is open a CircuitBreaker.OpenException is thrown without
+     * sending anything.
+     */
+    public <T> T execute(HttpUriRequest request, ResponseReader<T> reader) throws Exception {
+        CircuitBreaker breaker = circuitBreakers.acquire(request.getURI().getHost());
+        CloseableHttpResponse sent;
+        try {
+            sent = client.execute(request);
+        }
+        catch (Exception e) {
+            breaker.recordFailure();
+            throw e;
+        }
+        if (sent.getStatusLine().getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            breaker.recordFailure();
+        }
+        else {
+            breaker.recordSuccess();
+        }
+
+        try (CloseableHttpResponse response = sent) {
+            try {
+                return reader.read(response);
+            }
+            finally {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
+        }
+    }
+
+    /**
+     * Execute a request once the limiter allows it.  A throttled response slows the limiter down and the
+     * request is queued again, up to MAX_THROTTLED_ATTEMPTS times, before the last response is read as-is.
+     */
+    public <T> T execute(HttpUriRequest request, ResponseReader<T> reader, RateLimiter limiter) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            boolean lastAttempt = attempt >= MAX_THROTTLED_ATTEMPTS;
+            limiter.acquire();
+            Attempt<T> result = execute(request, response -> {
+                if (limiter.observe(response) && !lastAttempt) {
+                    return new Attempt<T>(false, null);
+                }
+                return new Attempt<T>(true, reader.read(response));
+            });
+            if (result.done) {
+                return result.value;
+            }
+        }
+    }
+
+    /**
+     * Convenience for the common case: the response body as a string, and the status code.
+     */
+    public StringResponse executeForString(HttpUriRequest request) throws Exception {
+        return execute(request, SharedHttpClient::readString);
+    }
+
+    public StringResponse executeForString(HttpUriRequest request, RateLimiter limiter) throws Exception {
+        return execute(request, SharedHttpClient::readString, limiter);
+    }
+
+    private static StringResponse readString(HttpResponse response) throws Exception {
+        return new StringResponse(
+            response.getStatusLine().getStatusCode(),
+            response.getStatusLine().getReasonPhrase(),
+            response.getEntity() == null ? null : EntityUtils.toString(response.getEntity()));
+    }
+
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @PreDestroy
+    void close() {
+        log.info("Closing shared HTTP client; pool " + getTotalStats());
+        try {
+            client.close();
+        }
+        catch (Exception e) {
+            log.warn("Could not close shared HTTP client cleanly.", e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ResponseReader<T> {
+        T read(HttpResponse response) throws Exception;
+    }
+
+    @AllArgsConstructor
+    private static class Attempt<T> {
+
+        private final boolean done;
+        private final T value;
+
+    }
+
+    @Getter
+    @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class StringResponse {
+
+        private final int statusCode;
+        private final String reasonPhrase;
+        private final String body;
+
+        public boolean isError() {
+            return statusCode > 399;
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A queued enrichment pass for one purchase request, and the services it has finished so far.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "enrichment_jobs")
+public class EnrichmentJob {
+
+    public enum Status {
+        PENDING, RUNNING, FAILED;
+    }
+
+    @Id
+    @Column(unique = true)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String purchaseRequestKey;
+
+    /**
+     * Comma-separated names of the services to repeat.  Null for a new purchase request, which runs them all.
+     */
+    @Column(length = 2000)
+    private String enrichments;
+
+    /**
+     * Comma-separated names of the services whose results are already stored.
+     */
+    @Column(length = 2000)
+    private String completedServices;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    private int attempts;
+
+    private Instant createdAt;
+
+    /**
+     * A RUNNING job whose lease has expired is assumed abandoned, and can be claimed again.
+     */
+    private Instant leaseExpiresAt;
+
+    /**
+     * When the job was marked FAILED.  It's deleted once the retention period passes.
+     */
+    private Instant finishedAt;
+
+}
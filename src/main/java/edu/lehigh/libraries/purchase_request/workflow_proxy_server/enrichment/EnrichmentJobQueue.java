@@ -0,0 +1,226 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Enrichment jobs stored in the database and drained by a fixed number of workers.
+ *
+ * Jobs are delivered at least once: a job is only deleted after its pass finishes, and a job whose worker
+ * disappears is claimed again once its lease expires.  A resumed job skips the services it already recorded.
+ * A job that runs out of attempts is kept as FAILED until the retention period passes.
+ */
+@Slf4j
+class EnrichmentJobQueue {
+
+    private static final String SEPARATOR = ",";
+    private static final int CLAIM_BATCH = 10;
+
+    private final EnrichmentManager manager;
+    private final WorkflowService workflowService;
+    private final EnrichmentJobRepository repository;
+    private final TaskScheduler scheduler;
+
+    private final TaskExecutor workers;
+    private final Semaphore idleWorkers;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration deferDelay;
+    private final Duration maxDeferral;
+    private final Duration retention;
+
+    private volatile boolean started = false;
+
+    // Claiming queries the database, so use a lock rather than synchronized to avoid pinning a virtual thread.
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+
+    EnrichmentJobQueue(EnrichmentManager manager, WorkflowService workflowService,
+        EnrichmentJobRepository repository, TaskScheduler scheduler, TaskExecutor workers,
+        Config.Enrichment config, Config.CircuitBreakers circuitBreakers) {
+
+        this.manager = manager;
+        this.workflowService = workflowService;
+        this.repository = repository;
+        this.scheduler = scheduler;
+        this.workers = workers;
+        this.pollInterval = config.getPollInterval();
+        this.lease = config.getLease();
+        this.maxAttempts = config.getMaxAttempts();
+        this.deferDelay = circuitBreakers.getOpenDuration();
+        this.maxDeferral = circuitBreakers.getMaxDeferral();
+        this.retention = config.getRetention();
+
+        idleWorkers = new Semaphore(config.getWorkers());
+    }
+
+    /**
+     * Start draining the queue, including any jobs left from before a restart.
+     */
+    void start() {
+        started = true;
+        scheduler.scheduleWithFixedDelay(this::pollLoggingErrors, pollInterval);
+    }
+
+    /**
+     * Stop claiming jobs.  The executor itself is shut down by Spring.
+     */
+    void shutdown() {
+        started = false;
+    }
+
+    /**
+     * @param enrichments Names of the services to repeat, or null to run all of them for a new purchase request.
+     */
+    void enqueue(String purchaseRequestKey, List<String> enrichments) {
+        EnrichmentJob job = new EnrichmentJob();
+        job.setPurchaseRequestKey(purchaseRequestKey);
+        job.setEnrichments(enrichments == null ? null : String.join(SEPARATOR, enrichments));
+        job.setStatus(EnrichmentJob.Status.PENDING);
+        job.setCreatedAt(Instant.now());
+        job = repository.save(job);
+        log.debug("Queued enrichment job " + job.getId() + " for " + purchaseRequestKey);
+
+        dispatchLoggingErrors();
+    }
+
+    private void pollLoggingErrors() {
+        try {
+            Instant before = Instant.now().minus(retention);
+            int deleted = repository.deleteFinishedBefore(List.of(EnrichmentJob.Status.FAILED), before);
+            if (deleted > 0) {
+                log.debug("Deleted " + deleted + " failed enrichment jobs.");
+            }
+        }
+        catch (Exception e) {
+            log.error("Could not delete failed enrichment jobs: ", e);
+        }
+        dispatchLoggingErrors();
+    }
+
+    private void dispatchLoggingErrors() {
+        try {
+            dispatch();
+        }
+        catch (Exception e) {
+            log.error("Could not dispatch enrichment jobs: ", e);
+        }
+    }
+
+    private void dispatch() {
+        dispatchLock.lock();
+        try {
+            dispatchLocked();
+        }
+        finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    private void dispatchLocked() {
+        while (started && idleWorkers.tryAcquire()) {
+            EnrichmentJob job = claimNext();
+            if (job == null) {
+                idleWorkers.release();
+                return;
+            }
+            workers.execute(() -> {
+                try {
+                    run(job);
+                }
+                finally {
+                    idleWorkers.release();
+                    dispatchLoggingErrors();
+                }
+            });
+        }
+    }
+
+    private EnrichmentJob claimNext() {
+        Instant now = Instant.now();
+        List<Long> ids = repository.findClaimableIds(EnrichmentJob.Status.PENDING, EnrichmentJob.Status.RUNNING,
+            now, PageRequest.of(0, CLAIM_BATCH));
+        for (Long id : ids) {
+            int claimed = repository.claim(id, EnrichmentJob.Status.PENDING, EnrichmentJob.Status.RUNNING,
+                now, now.plus(lease));
+            if (claimed == 1) {
+                return repository.findById(id).orElse(null);
+            }
+        }
+        return null;
+    }
+
+    private void run(EnrichmentJob job) {
+        String key = job.getPurchaseRequestKey();
+        try {
+            MDC.put("key", key);
+            if (job.getAttempts() > maxAttempts) {
+                log.error("Giving up on enrichment job " + job.getId() + " after " + maxAttempts + " attempts.");
+                repository.finish(job.getId(), EnrichmentJob.Status.FAILED, Instant.now());
+                return;
+            }
+
+            PurchaseRequest purchaseRequest = workflowService.findByKey(key);
+            if (purchaseRequest == null) {
+                log.warn("Purchase request for enrichment job " + job.getId() + " not found.");
+                repository.finish(job.getId(), EnrichmentJob.Status.FAILED, Instant.now());
+                return;
+            }
+
+            Set<String> completedServices = new LinkedHashSet<String>(split(job.getCompletedServices()));
+            if (!completedServices.isEmpty()) {
+                log.info("Resuming enrichment job " + job.getId() + ", already completed: " + completedServices);
+            }
+            List<String> enrichments = job.getEnrichments() == null ? null : split(job.getEnrichments());
+            boolean lastAttempt = job.getAttempts() >= maxAttempts;
+            boolean mayDefer = job.getCreatedAt() == null
+                || Instant.now().isBefore(job.getCreatedAt().plus(maxDeferral));
+            Set<String> deferred = manager.enrich(purchaseRequest, enrichments, new HashSet<String>(completedServices),
+                lastAttempt, mayDefer, stored -> checkpoint(job.getId(), completedServices, stored));
+
+            if (!deferred.isEmpty()) {
+                // The rest of the pass is done, so the job carries on as a repeat of just the deferred services.
+                repository.defer(job.getId(), String.join(SEPARATOR, deferred), Instant.now().plus(deferDelay));
+                return;
+            }
+            repository.deleteById(job.getId());
+        }
+        catch (Exception e) {
+            log.error("Enrichment job " + job.getId() + " failed; it will be retried when its lease expires: ", e);
+        }
+        finally {
+            MDC.remove("key");
+        }
+    }
+
+    private void checkpoint(Long id, Set<String> completedServices, Set<String> stored) {
+        completedServices.addAll(stored);
+        repository.checkpoint(id, String.join(SEPARATOR, completedServices), Instant.now().plus(lease));
+    }
+
+    private static List<String> split(String joined) {
+        if (joined == null || joined.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(joined.split(SEPARATOR));
+    }
+
+}
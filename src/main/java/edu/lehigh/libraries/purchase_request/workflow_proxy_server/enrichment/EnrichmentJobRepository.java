@@ -0,0 +1,75 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface EnrichmentJobRepository extends JpaRepository<EnrichmentJob, Long> {
+
+    @Query("select j.id from EnrichmentJob j where j.status = :pending "
+        + "or (j.status = :running and j.leaseExpiresAt < :now) order by j.id")
+    List<Long> findClaimableIds(@Param("pending") EnrichmentJob.Status pending,
+        @Param("running") EnrichmentJob.Status running, @Param("now") Instant now, Pageable pageable);
+
+    /**
+     * @return 1 if this caller got the job, 0 if another worker claimed it first.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EnrichmentJob j set j.status = :running, j.attempts = j.attempts + 1, "
+        + "j.leaseExpiresAt = :leaseExpiresAt where j.id = :id "
+        + "and (j.status = :pending or (j.status = :running and j.leaseExpiresAt < :now))")
+    int claim(@Param("id") Long id, @Param("pending") EnrichmentJob.Status pending,
+        @Param("running") EnrichmentJob.Status running, @Param("now") Instant now,
+        @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update EnrichmentJob j set j.completedServices = :completedServices, "
+        + "j.leaseExpiresAt = :leaseExpiresAt where j.id = :id")
+    int checkpoint(@Param("id") Long id, @Param("completedServices") String completedServices,
+        @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update EnrichmentJob j set j.status = :status, j.finishedAt = :now where j.id = :id")
+    int finish(@Param("id") Long id, @Param("status") EnrichmentJob.Status status, @Param("now") Instant now);
+
+    /**
+     * Jobs finished before finishedAt was recorded are aged by when they were created.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from EnrichmentJob j where j.status in :statuses "
+        + "and coalesce(j.finishedAt, j.createdAt) < :before")
+    int deleteFinishedBefore(@Param("statuses") Collection<EnrichmentJob.Status> statuses,
+        @Param("before") Instant before);
+
+    /**
+     * Turn the job into a repeat of just the deferred services, left claimed until retryAt, when its lease
+     * expires and it's claimed again.  Those services were refused by an open circuit breaker rather than
+     * failing, so the pass doesn't count as an attempt.
+     */
+    @Transactional
+    @Modifying
+    @Query("update EnrichmentJob j set j.enrichments = :enrichments, j.completedServices = null, "
+        + "j.attempts = j.attempts - 1, j.leaseExpiresAt = :retryAt where j.id = :id")
+    int defer(@Param("id") Long id, @Param("enrichments") String enrichments, @Param("retryAt") Instant retryAt);
+
+    /**
+     * @return Jobs waiting or running that will still call the named service.
+     */
+    @Query("select count(j) from EnrichmentJob j where j.status in :statuses "
+        + "and (j.enrichments is null or j.enrichments like :servicePattern) "
+        + "and (j.completedServices is null or j.completedServices not like :servicePattern)")
+    long countQueuedFor(@Param("statuses") Collection<EnrichmentJob.Status> statuses,
+        @Param("servicePattern") String servicePattern);
+
+}
@@ -1,38 +1,93 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
 
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.ExecutorConfig;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.CircuitBreakers;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPatch;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Runs the enrichment services for a purchase request.
+ *
+ * Services are ordered by priority, but a service only waits for a higher-priority one when they
+ * share data: one writes an EnrichmentType the other reads.  Everything else runs concurrently
+ * on a bounded pool, since nearly all enrichment is waiting on a remote API.
+ *
+ * Passes are queued as durable jobs (see EnrichmentJobQueue).  The services that finished are recorded
+ * as complete once the pass has stored their results, so a retried pass only repeats the rest.
+ * A service whose calls were refused by an open circuit breaker is left incomplete, so the job runs
+ * it again once the breaker has had time to close, for up to the configured maximum deferral.
+ */
 @Service
 @ConditionalOnWebApplication
 @Slf4j
 public class EnrichmentManager {
-    
+
     private WorkflowService workflowService;
     private SortedMap<Integer, List<EnrichmentService>> enrichmentServices;
+    private TaskExecutor executor;
+    private EnrichmentJobQueue jobQueue;
+    private CircuitBreakers circuitBreakers;
+    private boolean deferEnrichments;
+
+    EnrichmentManager(WorkflowService workflowService, EnrichmentJobRepository jobRepository,
+        TaskScheduler scheduler, @Qualifier(ExecutorConfig.ENRICHMENT) TaskExecutor executor,
+        @Qualifier(ExecutorConfig.ENRICHMENT_JOBS) TaskExecutor jobExecutor, CircuitBreakers circuitBreakers,
+        Config config) {
 
-    EnrichmentManager(WorkflowService workflowService) {
         this.workflowService = workflowService;
+        this.circuitBreakers = circuitBreakers;
+        this.deferEnrichments = config.getCircuitBreakers().isDeferEnrichments();
 
         // TreeMap is naturally sorted by its key, so priority order is maintained
         enrichmentServices = new TreeMap<Integer, List<EnrichmentService>>();
+
+        this.executor = executor;
+        jobQueue = new EnrichmentJobQueue(this, workflowService, jobRepository, scheduler, jobExecutor,
+            config.getEnrichment(), config.getCircuitBreakers());
+    }
+
+    /**
+     * Enrichment services register themselves as they're created, so don't run jobs until they all have.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void startJobQueue() {
+        jobQueue.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobQueue.shutdown();
     }
 
     /**
      * Add a listener.
-     * 
+     *
      * @param priority Lower number is *more* important.
      */
     public void addListener(EnrichmentService service, int priority) {
@@ -44,43 +99,175 @@ public class EnrichmentManager {
         listAtPriority.add(service);
     }
 
-    @Async
     public void notifyNewPurchaseRequest(PurchaseRequest purchaseRequest) {
-        enrich(purchaseRequest, null);
+        enqueue(purchaseRequest, null);
     }
 
-    @Async
     public void notifyRepeatEnrichment(PurchaseRequest purchaseRequest, EnrichmentRequest repeatEnrichmentRequest) {
-        enrich(purchaseRequest, repeatEnrichmentRequest);
+        enqueue(purchaseRequest, repeatEnrichmentRequest.getEnrichments());
+    }
+
+    private void enqueue(PurchaseRequest purchaseRequest, List<String> enrichments) {
+        try {
+            jobQueue.enqueue(purchaseRequest.getKey(), enrichments);
+        }
+        catch (Exception e) {
+            log.error("Could not queue enrichment for " + purchaseRequest.getKey() + ": ", e);
+        }
     }
- 
-    private void enrich(PurchaseRequest purchaseRequest, EnrichmentRequest repeatEnrichmentRequest) {
+
+    /**
+     * Run one enrichment pass.
+     *
+     * Results are stored once, at the end of the pass, and only then are the services that finished
+     * recorded as complete.  A service that threw fails the pass, so the job is retried and counts
+     * against its attempts, unless this is the last attempt, when the pass completes without it.
+     * Services deferred by an open circuit breaker don't hold up the rest: the pass still completes,
+     * and they're returned to be run again later.
+     *
+     * @param enrichments Names of the services to repeat, or null to run them all for a new purchase request.
+     * @param completedServices Services to skip because their results are already stored.
+     * @param lastAttempt Whether the job will be retried if a service fails.
+     * @param mayDefer Whether services refused by a circuit breaker may be run again later, or are skipped.
+     * @param onServicesStored Called with the names of the services whose results were stored by this pass.
+     * @return The services deferred by an open circuit breaker, to be run again later.
+     */
+    Set<String> enrich(PurchaseRequest purchaseRequest, List<String> enrichments, Set<String> completedServices,
+        boolean lastAttempt, boolean mayDefer, Consumer<Set<String>> onServicesStored) {
+
         try {
             MDC.put("key", purchaseRequest.getKey());
-            for (Map.Entry<Integer, List<EnrichmentService>> entry: enrichmentServices.entrySet()) {
-                List<EnrichmentService> listAtPriority = entry.getValue();
-                for (EnrichmentService service : listAtPriority) {
-                    if (repeatEnrichmentRequest == null ||
-                        repeatEnrichmentRequest.getEnrichments().contains(service.getClass().getSimpleName())) {
-                        try {
-                            service.enrichPurchaseRequest(purchaseRequest);
-
-                            // get updated purchase request
-                            purchaseRequest = workflowService.findByKey(purchaseRequest.getKey());
-                        }
-                        catch (Exception e) {
-                            log.error("Caught exception during enrichment: ", e);
-                        }
-                    }
+
+            // Each enrichment is applied to this copy as it's made, so it never needs reloading.
+            PurchaseRequest workingCopy = PurchaseRequestPatch.copyOf(purchaseRequest);
+
+            List<EnrichmentService> services = selectServices(enrichments);
+            List<List<Integer>> dependencies = buildDependencies(services);
+
+            Set<String> succeeded = ConcurrentHashMap.newKeySet();
+            Set<String> failed = ConcurrentHashMap.newKeySet();
+            Set<String> deferred = ConcurrentHashMap.newKeySet();
+            List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>(services.size());
+            for (int i = 0; i < services.size(); i++) {
+                EnrichmentService service = services.get(i);
+                if (completedServices.contains(serviceName(service))) {
+                    futures.add(CompletableFuture.completedFuture(null));
+                    continue;
+                }
+                List<Integer> dependsOn = dependencies.get(i);
+                CompletableFuture<?>[] prerequisites = dependsOn.stream()
+                    .map(futures::get)
+                    .toArray(CompletableFuture<?>[]::new);
+                futures.add(CompletableFuture.allOf(prerequisites).thenRunAsync(
+                    () -> runService(service, workingCopy, succeeded, failed, deferred), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            // One write for the whole pass; if it fails, nothing is recorded and the job is retried.
+            workflowService.flushEnrichments(workingCopy);
+            if (!succeeded.isEmpty()) {
+                onServicesStored.accept(succeeded);
+            }
+
+            if (!failed.isEmpty()) {
+                if (!lastAttempt) {
+                    throw new RuntimeException("Enrichment services failed: " + failed);
+                }
+                log.error("Giving up on enrichment services after the last attempt: " + failed);
+            }
+            if (!deferred.isEmpty()) {
+                if (mayDefer) {
+                    log.info("Deferred until their dependencies recover: " + deferred);
+                }
+                else {
+                    log.warn("Skipping services whose dependencies haven't recovered in time: " + deferred);
+                    deferred.clear();
                 }
             }
-            log.debug("Done with all enrichment.");
-            if (repeatEnrichmentRequest == null) {
-                workflowService.initialEnrichmentComplete(purchaseRequest);
+            log.debug("Done with enrichment pass.");
+            if (enrichments == null) {
+                workflowService.initialEnrichmentComplete(workingCopy);
             }
+            return deferred;
         }
         finally {
             MDC.remove("key");
         }
     }
+
+    private List<EnrichmentService> selectServices(List<String> enrichments) {
+        List<EnrichmentService> services = new ArrayList<EnrichmentService>();
+        for (List<EnrichmentService> listAtPriority : enrichmentServices.values()) {
+            for (EnrichmentService service : listAtPriority) {
+                if (enrichments == null || enrichments.contains(serviceName(service))) {
+                    services.add(service);
+                }
+            }
+        }
+        return services;
+    }
+
+    /**
+     * For each service (in priority order), the indexes of earlier services it has to wait for.
+     *
+     * A later service waits if it reads something an earlier one writes, or writes something an
+     * earlier one reads.  Two services writing the same type don't wait on each other; those writes
+     * either append comments or come from a single service.
+     */
+    static List<List<Integer>> buildDependencies(List<EnrichmentService> services) {
+        List<List<Integer>> dependencies = new ArrayList<List<Integer>>(services.size());
+        for (int later = 0; later < services.size(); later++) {
+            List<Integer> dependsOn = new ArrayList<Integer>();
+            for (int earlier = 0; earlier < later; earlier++) {
+                if (overlaps(services.get(earlier).getWrites(), services.get(later).getReads()) ||
+                    overlaps(services.get(earlier).getReads(), services.get(later).getWrites())) {
+                    dependsOn.add(earlier);
+                }
+            }
+            dependencies.add(dependsOn);
+        }
+        return dependencies;
+    }
+
+    private static boolean overlaps(Set<EnrichmentType> a, Set<EnrichmentType> b) {
+        return !Collections.disjoint(a, b);
+    }
+
+    private static String serviceName(EnrichmentService service) {
+        return service.getClass().getSimpleName();
+    }
+
+    private void runService(EnrichmentService service, PurchaseRequest workingCopy, Set<String> succeeded,
+        Set<String> failed, Set<String> deferred) {
+
+        String name = serviceName(service);
+        Set<String> refused = new HashSet<String>();
+        try {
+            MDC.put("key", workingCopy.getKey());
+            log.debug("Starting " + name);
+
+            if (service.isFreshDataRequired()) {
+                workflowService.flushEnrichments(workingCopy);
+                PurchaseRequestPatch.refresh(workingCopy, workflowService.findByKey(workingCopy.getKey()));
+            }
+            circuitBreakers.track(refused, () -> service.enrichPurchaseRequest(workingCopy));
+        }
+        catch (Exception e) {
+            if (!deferEnrichments || refused.isEmpty()) {
+                log.error("Caught exception during " + name + ": ", e);
+                failed.add(name);
+                return;
+            }
+        }
+        finally {
+            MDC.remove("key");
+        }
+
+        if (deferEnrichments && !refused.isEmpty()) {
+            log.warn("Deferring " + name + ", circuit breaker open for " + refused);
+            deferred.add(name);
+            return;
+        }
+        succeeded.add(name);
+    }
 }
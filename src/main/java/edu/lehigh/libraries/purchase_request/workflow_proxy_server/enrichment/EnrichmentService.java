@@ -1,9 +1,40 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 
 public interface EnrichmentService {
-    
+
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest);
 
+    /**
+     * Enrichment types whose values this service reads from the purchase request.
+     *
+     * Used by EnrichmentManager to decide which services must wait for others.  Services that don't
+     * override this are assumed to read everything, so they keep strict priority order.
+     */
+    public default Set<EnrichmentType> getReads() {
+        return EnumSet.allOf(EnrichmentType.class);
+    }
+
+    /**
+     * Enrichment types this service may write to the purchase request.
+     *
+     * Services that don't override this are assumed to write everything.
+     */
+    public default Set<EnrichmentType> getWrites() {
+        return EnumSet.allOf(EnrichmentType.class);
+    }
+
+    /**
+     * True if this service needs the purchase request reloaded from the workflow service before it runs.
+     *
+     * Normally services get EnrichmentManager's working copy, which already has earlier enrichments applied.
+     */
+    public default boolean isFreshDataRequired() {
+        return false;
+    }
+
 }
@@ -1,6 +1,8 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.budget;
 
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -27,16 +29,27 @@ public class FolioBudgetEnrichment implements EnrichmentService {
     private final WorkflowService workflowService;
     private FolioConnection connection;
 
-    FolioBudgetEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config)
+    FolioBudgetEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        FolioConnection folioConnection)
         throws Exception {
 
         this.workflowService = workflowService;
-        connection = new FolioConnection(config);
+        connection = folioConnection;
 
         manager.addListener(this, 810);
         log.debug("FolioBudgetEnrichment ready.");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.LIBRARIANS);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.FUND_CODE, EnrichmentType.OBJECT_CODE);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         String selector = purchaseRequest.getLibrarianUsername();
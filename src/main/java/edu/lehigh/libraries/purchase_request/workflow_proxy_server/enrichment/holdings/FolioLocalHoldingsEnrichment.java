@@ -25,10 +25,11 @@ public class FolioLocalHoldingsEnrichment extends HoldingsEnrichment {
     private final WorkflowService workflowService;
     private final FolioConnection connection;
 
-    FolioLocalHoldingsEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) throws Exception {
+    FolioLocalHoldingsEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        FolioConnection folioConnection) throws Exception {
         super(config);
         this.workflowService = workflowService;
-        this.connection = new FolioConnection(config);
+        this.connection = folioConnection;
 
         manager.addListener(this, 200);
         log.debug("FolioLocalHoldingsEnrichment listening.");
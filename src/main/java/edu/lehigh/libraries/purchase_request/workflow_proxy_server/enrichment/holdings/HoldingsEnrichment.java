@@ -1,8 +1,12 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.holdings;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.ConnectionUtil;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
 
 abstract class HoldingsEnrichment implements EnrichmentService {
     
@@ -52,4 +56,14 @@ abstract class HoldingsEnrichment implements EnrichmentService {
         }
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.TITLE, EnrichmentType.CONTRIBUTOR, EnrichmentType.OCLC_NUMBER);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.LOCAL_HOLDINGS);
+    }
+
 }
@@ -8,6 +8,9 @@ import org.springframework.stereotype.Service;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.CircuitBreakers;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcResponseCache;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcTokenProvider;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
 import lombok.extern.slf4j.Slf4j;
@@ -20,10 +23,11 @@ public class OclcGroupHoldingsEnrichment extends OclcHoldingsEnrichment {
     
     private final List<String> GROUP_OCLC_SYMBOLS;
 
-    OclcGroupHoldingsEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) 
+    OclcGroupHoldingsEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        OclcTokenProvider tokenProvider, OclcResponseCache responseCache, CircuitBreakers circuitBreakers)
         throws Exception {
         
-        super(workflowService, config);
+        super(workflowService, config, tokenProvider, responseCache, circuitBreakers);
 
         GROUP_OCLC_SYMBOLS = config.getGroupHoldings().getOclcSymbols();
 
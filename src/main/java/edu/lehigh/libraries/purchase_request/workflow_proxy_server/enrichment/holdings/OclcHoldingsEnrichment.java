@@ -5,8 +5,11 @@ import com.google.gson.JsonObject;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.CircuitBreakers;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.ConnectionUtil;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcConnection;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcResponseCache;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcTokenProvider;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
 import lombok.extern.slf4j.Slf4j;
@@ -19,10 +22,11 @@ abstract class OclcHoldingsEnrichment extends HoldingsEnrichment {
     final OclcConnection oclcConnection;
     final WorkflowService workflowService;
 
-    OclcHoldingsEnrichment(WorkflowService workflowService, Config config) throws Exception {
+    OclcHoldingsEnrichment(WorkflowService workflowService, Config config, OclcTokenProvider tokenProvider,
+        OclcResponseCache responseCache, CircuitBreakers circuitBreakers) throws Exception {
         super(config);
         this.workflowService = workflowService;
-        this.oclcConnection = new OclcConnection(config, SCOPE);
+        this.oclcConnection = new OclcConnection(tokenProvider, responseCache, circuitBreakers, SCOPE);
     }
 
     void enrichByTitleAndContributorWithSymbol(PurchaseRequest purchaseRequest, String oclcSymbol,
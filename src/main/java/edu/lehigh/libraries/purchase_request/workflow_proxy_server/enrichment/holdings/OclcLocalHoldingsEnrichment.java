@@ -6,6 +6,9 @@ import org.springframework.stereotype.Service;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.CircuitBreakers;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcResponseCache;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcTokenProvider;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
 import lombok.extern.slf4j.Slf4j;
@@ -18,8 +21,10 @@ public class OclcLocalHoldingsEnrichment extends OclcHoldingsEnrichment {
 
     private final String LOCAL_OCLC_SYMBOL;
 
-    OclcLocalHoldingsEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) throws Exception {
-        super(workflowService, config);
+    OclcLocalHoldingsEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        OclcTokenProvider tokenProvider, OclcResponseCache responseCache, CircuitBreakers circuitBreakers)
+        throws Exception {
+        super(workflowService, config, tokenProvider, responseCache, circuitBreakers);
 
         LOCAL_OCLC_SYMBOL = config.getOclc().getLocalInstitutionSymbol();
 
@@ -1,5 +1,8 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.identifiers;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -10,8 +13,11 @@ import org.springframework.stereotype.Service;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.CircuitBreakers;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.ConnectionUtil;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcConnection;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcResponseCache;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcTokenProvider;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentService;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
@@ -32,8 +38,10 @@ public class OclcIdentifiersEnrichment implements EnrichmentService {
     private final WorkflowService workflowService;
     private final OclcConnection oclcConnection;
 
-    OclcIdentifiersEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) throws Exception {
-        this.oclcConnection = new OclcConnection(config, SCOPE);
+    OclcIdentifiersEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        OclcTokenProvider tokenProvider, OclcResponseCache responseCache, CircuitBreakers circuitBreakers)
+        throws Exception {
+        this.oclcConnection = new OclcConnection(tokenProvider, responseCache, circuitBreakers, SCOPE);
         this.workflowService = workflowService;
 
         CLASSIFICATION_TYPE = config.getOclc().getClassificationType();
@@ -43,6 +51,16 @@ public class OclcIdentifiersEnrichment implements EnrichmentService {
         log.debug("OclcIdentifiersEnrichment ready");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.OCLC_NUMBER, EnrichmentType.CALL_NUMBER, EnrichmentType.TITLE, EnrichmentType.CONTRIBUTOR);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.OCLC_NUMBER, EnrichmentType.CALL_NUMBER, EnrichmentType.TITLE, EnrichmentType.CONTRIBUTOR);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         if (purchaseRequest.getOclcNumber() != null && 
@@ -2,7 +2,9 @@ package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.l
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -14,6 +16,7 @@ import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.ConnectionUtil;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.LibrarianCallNumbersConnection;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentService;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
@@ -32,9 +35,10 @@ public class LibrarianEnrichment implements EnrichmentService {
     private final String BASE_URL;
     private final String NO_CALL_NUMBER_USERNAME;
 
-    LibrarianEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) {
+    LibrarianEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        SharedHttpClient httpClient) {
         this.workflowService = workflowService;
-        connection = new LibrarianCallNumbersConnection();
+        connection = new LibrarianCallNumbersConnection(httpClient);
 
         BASE_URL = config.getLibrarianCallNumbers().getBaseUrl();
         NO_CALL_NUMBER_USERNAME = config.getLibrarianCallNumbers().getNoCallNumberUsername();
@@ -43,6 +47,16 @@ public class LibrarianEnrichment implements EnrichmentService {
         log.debug("LibrarianEnrichment ready.");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.LIBRARIANS, EnrichmentType.CALL_NUMBER);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.LIBRARIANS);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         if (purchaseRequest.getLibrarianUsername() != null) {
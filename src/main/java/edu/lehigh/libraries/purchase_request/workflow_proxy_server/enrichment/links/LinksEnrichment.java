@@ -1,5 +1,8 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.links;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Service;
@@ -34,6 +37,16 @@ public class LinksEnrichment implements EnrichmentService {
         log.debug("LinksEnrichment ready");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.TITLE);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.LINKS);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         String title = purchaseRequest.getTitle();
@@ -1,15 +1,16 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.amazon_axesso;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.apache.http.HttpEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.util.EntityUtils;
 import org.json.JSONObject;
 
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiter;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -18,25 +19,27 @@ public class AmazonAxessoConnection {
     private final String API_HOST;
     private final String API_KEY;
 
-    private AmazonAxessoQuotaMonitor quotaMonitor;
-    private boolean futureCallsAllowed = true;
-    private CloseableHttpClient client;
+    private final AmazonAxessoQuotaMonitor quotaMonitor;
+    private final SharedHttpClient client;
+    private final RateLimiter rateLimiter;
  
-    AmazonAxessoConnection(Config config, String API_HOST) {
+    AmazonAxessoConnection(Config config, SharedHttpClient client, RateLimiter rateLimiter,
+        AmazonAxessoQuotaMonitor quotaMonitor, String API_HOST) {
         this.API_HOST = API_HOST;
         this.API_KEY = config.getAmazonAxesso().getApiKey();
-        this.quotaMonitor = new AmazonAxessoQuotaMonitor(config);
-        this.futureCallsAllowed = true;
-        initConnection();
-    }
-
-    private void initConnection() {
-        client = HttpClientBuilder.create().build();
+        this.quotaMonitor = quotaMonitor;
+        this.client = client;
+        this.rateLimiter = rateLimiter;
     }
 
     public JSONObject execute(String url) {
-        if (!futureCallsAllowed) {
-            throw new AmazonAxessoQuotaMonitor.QuotaException("Blocking call since futureCallsAllowed is false.");
+        AmazonAxessoQuotaMonitor.Permit permit;
+        try {
+            permit = quotaMonitor.acquire();
+        }
+        catch (AmazonAxessoQuotaMonitor.QuotaException e) {
+            log.warn(e.getMessage());
+            return null;
         }
 
         HttpUriRequest getRequest = RequestBuilder.get()
@@ -45,13 +48,15 @@ public class AmazonAxessoConnection {
             .setHeader("X-RapidAPI-Host", API_HOST)
             .build();
 
-        CloseableHttpResponse response;
         String responseString;
+        AtomicBoolean answered = new AtomicBoolean(false);
         try {
-            response = client.execute(getRequest);
-            futureCallsAllowed = quotaMonitor.incrementUsage(response);
-            HttpEntity entity = response.getEntity();
-            responseString = EntityUtils.toString(entity);
+            responseString = client.execute(getRequest, response -> {
+                answered.set(true);
+                quotaMonitor.recordUsage(response);
+                HttpEntity entity = response.getEntity();
+                return EntityUtils.toString(entity);
+            }, rateLimiter);
 
             // For testing: load result JSON from a local file
             // Resource resource = new ClassPathResource("fake_amazon_result.json");
@@ -59,6 +64,10 @@ public class AmazonAxessoConnection {
         }
         catch (Exception e) {
             log.error("Could not call AmazonAxesso API.", e);
+            if (!answered.get()) {
+                // Refused by the rate limiter or circuit breaker, or no response came back
+                quotaMonitor.giveBack(permit);
+            }
             return null;
         }
         log.debug("Axesso response string: " + responseString);
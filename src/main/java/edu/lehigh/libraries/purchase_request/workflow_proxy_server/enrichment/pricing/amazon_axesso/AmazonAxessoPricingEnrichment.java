@@ -1,7 +1,9 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.amazon_axesso;
 
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -12,6 +14,8 @@ import org.springframework.stereotype.Service;
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.ConnectionUtil;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiters;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentService;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
@@ -35,18 +39,30 @@ public class AmazonAxessoPricingEnrichment implements EnrichmentService {
     private final WorkflowService workflowService;
     private final AmazonAxessoConnection connection;
     
-    AmazonAxessoPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) {
+    AmazonAxessoPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        SharedHttpClient httpClient, RateLimiters rateLimiters, AmazonAxessoQuotaMonitor quotaMonitor) {
         this.workflowService = workflowService;
 
         API_DOMAIN_CODE = config.getAmazonAxesso().getApiDomainCode();
         PAGE_URL_PREFIX = config.getAmazonAxesso().getPageUrlPrefix();
         MAX_PRODUCTS = config.getAmazonAxesso().getMaxProducts();
 
-        this.connection = new AmazonAxessoConnection(config, API_HOST);
+        this.connection = new AmazonAxessoConnection(config, httpClient, rateLimiters.get(RateLimiters.AMAZON_AXESSO),
+            quotaMonitor, API_HOST);
         manager.addListener(this, 650);
         log.debug("AmazonAxessoPricingEnrichment ready");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.TITLE, EnrichmentType.CONTRIBUTOR);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.PRICING);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         String title = purchaseRequest.getTitle();
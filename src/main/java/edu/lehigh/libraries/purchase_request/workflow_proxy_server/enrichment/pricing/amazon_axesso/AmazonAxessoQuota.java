@@ -0,0 +1,48 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.amazon_axesso;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Calls made against the Axesso quota in one monthly billing window, shared by every node.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "amazon_axesso_quota")
+public class AmazonAxessoQuota {
+
+    /**
+     * First day of the billing window, as an ISO date.
+     */
+    @Id
+    private String period;
+
+    /**
+     * Calls made in the window, including overage.
+     */
+    @Column(nullable = false)
+    private long used;
+
+    /**
+     * Calls left in the quota, as last reported by RapidAPI less the calls made since.
+     * Null until the first response in the window.
+     */
+    private Long remaining;
+
+    /**
+     * Calls made after the quota ran out.
+     */
+    @Column(nullable = false)
+    private int overage;
+
+    private Instant updatedAt;
+
+}
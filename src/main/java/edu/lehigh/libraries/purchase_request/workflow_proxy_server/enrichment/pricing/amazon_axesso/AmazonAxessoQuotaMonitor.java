@@ -1,59 +1,199 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.amazon_axesso;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+
 import org.apache.http.Header;
-import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.HttpResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
 
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentJob;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentJobRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Accounts for calls against the monthly Axesso quota in the database, so the count survives restarts
+ * and is shared by every node.
+ *
+ * Each call is taken from the quota before it is made, with an atomic update, and given back if it gets
+ * no response, such as when the rate limiter or circuit breaker refuses it.  The remaining quota RapidAPI
+ * reports with each response corrects the count.  Once the quota is used up, calls are taken
+ * from the overage allowed instead, and after that they are refused until the next billing window.
+ * So a backlog larger than the budget still gets as many calls as the budget covers, in queue order.
+ */
+@Service
+@ConditionalOnProperty(name = "workflow.amazon-axesso.enabled", havingValue = "true")
+@ConditionalOnWebApplication
 @Slf4j
 public class AmazonAxessoQuotaMonitor {
 
     private static final String HEADER_REMAINING = "X-RateLimit-Requests-Remaining";
 
+    private static final String SERVICE_PATTERN = "%" + AmazonAxessoPricingEnrichment.class.getSimpleName() + "%";
+
+    private final AmazonAxessoQuotaRepository repository;
+    private final EnrichmentJobRepository enrichmentJobs;
+
     private final int OVERAGE_ALLOWED;
+    private final int RESET_DAY_OF_MONTH;
 
-    private Integer overage;
+    AmazonAxessoQuotaMonitor(Config config, AmazonAxessoQuotaRepository repository,
+        EnrichmentJobRepository enrichmentJobs) {
 
-    AmazonAxessoQuotaMonitor(Config config) {
-        OVERAGE_ALLOWED = config.getAmazonAxesso().getQuotaMonitor().getOverageAllowed();
+        this.repository = repository;
+        this.enrichmentJobs = enrichmentJobs;
 
-        overage = null;
+        Config.AmazonAxesso.QuotaMonitor quotaConfig = config.getAmazonAxesso().getQuotaMonitor();
+        OVERAGE_ALLOWED = quotaConfig.getOverageAllowed();
+        RESET_DAY_OF_MONTH = quotaConfig.getResetDayOfMonth();
+        log.debug("AmazonAxessoQuotaMonitor ready");
     }
 
     /**
-     * Increment the amount used and check against the quota.
-     * 
-     * @return true to allow the call to proceed, false to block it.
+     * Take a call from the current window's budget.
+     *
+     * @return The call taken, to give back if it isn't answered.
+     * @throws QuotaException if the quota and overage allowed are used up.
      */
-    public boolean incrementUsage(CloseableHttpResponse response) {
-        Header[] headers = response.getHeaders(HEADER_REMAINING);
-        if (headers.length < 1) {
+    public Permit acquire() {
+        String period = currentPeriod();
+        findOrCreate(period);
+
+        Instant now = Instant.now();
+        if (repository.takeFromQuota(period, now) == 1) {
+            return new Permit(period, false);
+        }
+        if (repository.takeFromOverage(period, OVERAGE_ALLOWED, now) == 1) {
+            log.warn("Quota used up, calling within the overage allowed of " + OVERAGE_ALLOWED);
+            return new Permit(period, true);
+        }
+        throw new QuotaException("Refusing call since the quota and overage allowed are used up for " + period);
+    }
+
+    /**
+     * Return a call that got no response to the budget it was taken from.
+     */
+    public void giveBack(Permit permit) {
+        try {
+            Instant now = Instant.now();
+            if (permit.isFromOverage()) {
+                repository.returnToOverage(permit.getPeriod(), now);
+            }
+            else {
+                repository.returnToQuota(permit.getPeriod(), now);
+            }
+        }
+        catch (Exception e) {
+            log.warn("Could not give back unanswered call for " + permit.getPeriod() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Correct the count from the remaining quota reported with a response.
+     */
+    public void recordUsage(HttpResponse response) {
+        Header header = response.getFirstHeader(HEADER_REMAINING);
+        if (header == null) {
             log.warn("Quota remaining not available.");
-            return false;
+            return;
+        }
+        long remaining;
+        try {
+            remaining = Long.parseLong(header.getValue().trim());
+        }
+        catch (NumberFormatException e) {
+            log.warn("Unparseable quota remaining: " + header.getValue());
+            return;
+        }
+        log.info("Quota remaining: " + remaining);
+        repository.reportRemaining(currentPeriod(), remaining, Instant.now());
+    }
+
+    public Snapshot snapshot() {
+        String period = currentPeriod();
+        AmazonAxessoQuota quota = repository.findById(period).orElse(null);
+        long queued = enrichmentJobs.countQueuedFor(
+            EnumSet.of(EnrichmentJob.Status.PENDING, EnrichmentJob.Status.RUNNING), SERVICE_PATTERN);
+        if (quota == null) {
+            return new Snapshot(period, 0, null, 0, OVERAGE_ALLOWED, null, queued);
         }
-        Header header = headers[0];
-        String remainingValue = header.getValue();
-        int remaining = Integer.parseInt(remainingValue);
+        Long budget = quota.getRemaining() == null ? null
+            : Math.max(quota.getRemaining(), 0) + OVERAGE_ALLOWED - quota.getOverage();
+        return new Snapshot(period, quota.getUsed(), quota.getRemaining(), quota.getOverage(), OVERAGE_ALLOWED,
+            budget, queued);
+    }
 
-        log.info("Quota remaining: " + remaining + ", overage: " + overage);
+    /**
+     * The first day of the current billing window.  A reset day past the end of a short month
+     * falls on its last day.
+     */
+    String currentPeriod() {
+        return periodStart(LocalDate.now(ZoneOffset.UTC), RESET_DAY_OF_MONTH).toString();
+    }
 
-        if (remaining == 0) {
-            if (overage == null) {
-                overage = 0;
-            }
-            overage++;
+    static LocalDate periodStart(LocalDate today, int resetDayOfMonth) {
+        LocalDate thisMonth = today.withDayOfMonth(Math.min(resetDayOfMonth, today.lengthOfMonth()));
+        if (!today.isBefore(thisMonth)) {
+            return thisMonth;
+        }
+        LocalDate lastMonth = today.minusMonths(1);
+        return lastMonth.withDayOfMonth(Math.min(resetDayOfMonth, lastMonth.lengthOfMonth()));
+    }
 
-            if (overage > OVERAGE_ALLOWED) {
-                log.warn("Exceeded overage allowed.");
-                return false;
-            }
+    private AmazonAxessoQuota findOrCreate(String period) {
+        AmazonAxessoQuota quota = repository.findById(period).orElse(null);
+        if (quota != null) {
+            return quota;
+        }
+        quota = new AmazonAxessoQuota();
+        quota.setPeriod(period);
+        quota.setUpdatedAt(Instant.now());
+        try {
+            return repository.save(quota);
         }
-        return true;
+        catch (DataIntegrityViolationException e) {
+            // Another node started the window first
+            return repository.findById(period).orElseThrow(() -> e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+
+        private final String period;
+        private final long used;
+        private final Long remaining;
+        private final int overage;
+        private final int overageAllowed;
+        /** Calls left in the quota and overage allowed, or null until the remaining quota is known. */
+        private final Long budget;
+        /** Enrichments waiting to call Axesso; any beyond the budget will be refused. */
+        private final long queued;
+
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Permit {
+
+        private final String period;
+        private final boolean fromOverage;
+
     }
 
     public static class QuotaException extends RuntimeException {
 
+        private static final long serialVersionUID = 1L;
+
         QuotaException(String message) {
             super(message);
         }
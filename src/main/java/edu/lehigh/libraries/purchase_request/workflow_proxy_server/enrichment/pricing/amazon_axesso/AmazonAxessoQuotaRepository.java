@@ -0,0 +1,64 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.amazon_axesso;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface AmazonAxessoQuotaRepository extends JpaRepository<AmazonAxessoQuota, String> {
+
+    /**
+     * Take one call from the quota, if the quota is unknown or has calls left.  An unknown remaining stays null.
+     *
+     * @return 1 if the call may go ahead, 0 if not or the period has no entry yet.
+     */
+    @Transactional
+    @Modifying
+    @Query("update AmazonAxessoQuota q set q.used = q.used + 1, q.remaining = q.remaining - 1, q.updatedAt = :now "
+        + "where q.period = :period and (q.remaining is null or q.remaining > 0)")
+    int takeFromQuota(@Param("period") String period, @Param("now") Instant now);
+
+    /**
+     * Take one call from the overage allowed, once the quota is used up.
+     *
+     * @return 1 if the call may go ahead, 0 if the overage allowed is used up too.
+     */
+    @Transactional
+    @Modifying
+    @Query("update AmazonAxessoQuota q set q.used = q.used + 1, q.overage = q.overage + 1, q.updatedAt = :now "
+        + "where q.period = :period and q.remaining <= 0 and q.overage < :overageAllowed")
+    int takeFromOverage(@Param("period") String period, @Param("overageAllowed") int overageAllowed,
+        @Param("now") Instant now);
+
+    /**
+     * Give back a call taken from the quota that was never answered.
+     */
+    @Transactional
+    @Modifying
+    @Query("update AmazonAxessoQuota q set q.used = q.used - 1, q.remaining = q.remaining + 1, q.updatedAt = :now "
+        + "where q.period = :period and q.used > 0")
+    int returnToQuota(@Param("period") String period, @Param("now") Instant now);
+
+    /**
+     * Give back a call taken from the overage allowed that was never answered.
+     */
+    @Transactional
+    @Modifying
+    @Query("update AmazonAxessoQuota q set q.used = q.used - 1, q.overage = q.overage - 1, q.updatedAt = :now "
+        + "where q.period = :period and q.used > 0 and q.overage > 0")
+    int returnToOverage(@Param("period") String period, @Param("now") Instant now);
+
+    /**
+     * Record the remaining quota reported with a response.  RapidAPI's count is the authority, so it
+     * replaces the stored one in either direction, correcting calls counted here that never reached it.
+     */
+    @Transactional
+    @Modifying
+    @Query("update AmazonAxessoQuota q set q.remaining = :remaining, q.updatedAt = :now where q.period = :period")
+    int reportRemaining(@Param("period") String period, @Param("remaining") long remaining,
+        @Param("now") Instant now);
+
+}
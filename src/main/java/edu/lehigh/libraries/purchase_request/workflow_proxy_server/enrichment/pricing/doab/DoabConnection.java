@@ -1,38 +1,30 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.doab;
 
-import org.apache.http.HttpEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
 import org.json.JSONArray;
 
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiter;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class DoabConnection {
     
-    private CloseableHttpClient client;
+    private final SharedHttpClient client;
+    private final RateLimiter rateLimiter;
 
-    DoabConnection() {
-        initConnection();
-    }
-
-    private void initConnection() {
-        client = HttpClientBuilder.create().build();
+    DoabConnection(SharedHttpClient client, RateLimiter rateLimiter) {
+        this.client = client;
+        this.rateLimiter = rateLimiter;
     }
 
     public JSONArray executeForArray(String url) {
         log.debug("Executing query: " + url);
         HttpUriRequest getRequest = RequestBuilder.get(url).build();
-        CloseableHttpResponse response;
         JSONArray jsonArray;
         try {
-            response = client.execute(getRequest);
-            HttpEntity entity = response.getEntity();
-            String responseString = EntityUtils.toString(entity);
+            String responseString = client.executeForString(getRequest, rateLimiter).getBody();
             log.debug("Response string: " + responseString);
             jsonArray = new JSONArray(responseString);
         }
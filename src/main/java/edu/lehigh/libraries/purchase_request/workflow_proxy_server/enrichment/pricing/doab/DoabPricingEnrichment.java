@@ -1,7 +1,9 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.doab;
 
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -12,6 +14,8 @@ import org.springframework.stereotype.Service;
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.ConnectionUtil;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiters;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentService;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
@@ -33,14 +37,25 @@ public class DoabPricingEnrichment implements EnrichmentService {
     private final WorkflowService workflowService;
     private final DoabConnection connection;
     
-    DoabPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) {
+    DoabPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        SharedHttpClient httpClient, RateLimiters rateLimiters) {
         this.workflowService = workflowService;
 
-        this.connection = new DoabConnection();
+        this.connection = new DoabConnection(httpClient, rateLimiters.get(RateLimiters.DOAB));
         manager.addListener(this, 670);
         log.debug("DoabPricingEnrichment ready");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.TITLE, EnrichmentType.CONTRIBUTOR);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.PRICING);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         String title = purchaseRequest.getTitle();
@@ -1,35 +1,33 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.isbn_db;
 
-import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
 import org.json.JSONObject;
 
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiter;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class IsbnDbConnection {
 
     private final Config config;
+    private final SharedHttpClient client;
+    private final RateLimiter rateLimiter;
 
     private String API_KEY;
-    private CloseableHttpClient client;    
 
-    public IsbnDbConnection(Config config) {
+    public IsbnDbConnection(Config config, SharedHttpClient client, RateLimiter rateLimiter) {
         this.config = config;
+        this.client = client;
+        this.rateLimiter = rateLimiter;
         initConnection();
     }
 
     private void initConnection() {
         API_KEY = config.getIsbnDb().getApiKey();
-        client = HttpClientBuilder.create()
-            .build();
     }
 
     public JSONObject execute(String url) {
@@ -38,12 +36,9 @@ public class IsbnDbConnection {
         .setHeader(HttpHeaders.AUTHORIZATION, API_KEY)
         .build();
     
-        CloseableHttpResponse response;
         String responseString;
         try {
-            response = client.execute(getRequest);
-            HttpEntity entity = response.getEntity();
-            responseString = EntityUtils.toString(entity);
+            responseString = client.executeForString(getRequest, rateLimiter).getBody();
         }
         catch (Exception e) {
             log.error("Could not get data from IsbnDb.", e);
@@ -1,5 +1,8 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.isbn_db;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import org.json.JSONObject;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
@@ -7,6 +10,8 @@ import org.springframework.stereotype.Service;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiters;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentUtil;
@@ -19,11 +24,17 @@ import lombok.extern.slf4j.Slf4j;
 @ConditionalOnWebApplication
 public class IsbnDbIsbnPricingEnrichment extends IsbnDbPricingEnrichment {
 
-    IsbnDbIsbnPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) {
-        super(manager, workflowService, config);
+    IsbnDbIsbnPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        SharedHttpClient httpClient, RateLimiters rateLimiters) {
+        super(manager, workflowService, config, httpClient, rateLimiters);
         log.debug("IsbnDbIsbnPricingEnrichment ready");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.noneOf(EnrichmentType.class);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         String isbn = purchaseRequest.getIsbn();
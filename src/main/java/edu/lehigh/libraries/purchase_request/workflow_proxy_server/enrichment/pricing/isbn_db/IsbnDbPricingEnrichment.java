@@ -1,8 +1,14 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.isbn_db;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiters;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
 
 abstract class IsbnDbPricingEnrichment implements EnrichmentService {
@@ -12,11 +18,17 @@ abstract class IsbnDbPricingEnrichment implements EnrichmentService {
     final WorkflowService workflowService;
     final IsbnDbConnection connection;
 
-    IsbnDbPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) {
+    IsbnDbPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        SharedHttpClient httpClient, RateLimiters rateLimiters) {
         this.workflowService = workflowService;
-        this.connection = new IsbnDbConnection(config);
+        this.connection = new IsbnDbConnection(config, httpClient, rateLimiters.get(RateLimiters.ISBN_DB));
 
         manager.addListener(this, 660);
     }
 
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.PRICING);
+    }
+
 }
@@ -2,10 +2,12 @@ package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.p
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -18,6 +20,8 @@ import org.springframework.stereotype.Service;
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.ConnectionUtil;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiters;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentUtil;
@@ -34,12 +38,18 @@ public class IsbnDbTitlePricingEnrichment extends IsbnDbPricingEnrichment {
 
     private final boolean FILTER_ON_CONTRIBUTOR;
 
-    IsbnDbTitlePricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) {
-        super(manager, workflowService, config);
+    IsbnDbTitlePricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        SharedHttpClient httpClient, RateLimiters rateLimiters) {
+        super(manager, workflowService, config, httpClient, rateLimiters);
         FILTER_ON_CONTRIBUTOR = config.getIsbnDb().getTitleSearch().isFilterOnContributor();
         log.debug("IsbnDbTitlePricingEnrichment ready");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.TITLE, EnrichmentType.CONTRIBUTOR);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         String title = purchaseRequest.getTitle();
@@ -1,15 +1,12 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.oasis;
 
-import org.apache.http.HttpEntity;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
 import org.json.JSONObject;
 
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiter;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
@@ -21,20 +18,21 @@ public class OasisConnection {
     private static final String BASE_URL = "https://oasis-services.proquest.com/api/v1";
 
     private final Config config;
+    private final SharedHttpClient client;
+    private final RateLimiter rateLimiter;
 
-    private CloseableHttpClient client;
     private String API_KEY_PARAM; 
 
-    OasisConnection(Config config) {
+    OasisConnection(Config config, SharedHttpClient client, RateLimiter rateLimiter) {
         this.config = config;
+        this.client = client;
+        this.rateLimiter = rateLimiter;
         initConnection();
     }
 
     private void initConnection() {
         String apiKey = config.getOasis().getApiKey();
         API_KEY_PARAM = "&apiKey=" + apiKey;
-
-        client = HttpClientBuilder.create().build();
     }
 
     public JSONObject query(String path) {
@@ -43,12 +41,9 @@ public class OasisConnection {
         .setUri(url)
         .build();
     
-        CloseableHttpResponse response;
         String responseString;
         try {
-            response = client.execute(getRequest);
-            HttpEntity entity = response.getEntity();
-            responseString = EntityUtils.toString(entity);
+            responseString = client.executeForString(getRequest, rateLimiter).getBody();
         }
         catch (Exception e) {
             log.error("Could not get data from Oasis.", e);
@@ -2,8 +2,10 @@ package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.p
 
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -14,6 +16,8 @@ import org.springframework.stereotype.Service;
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.ConnectionUtil;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.RateLimiters;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentService;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
@@ -42,9 +46,10 @@ public class OasisPricingEnrichment implements EnrichmentService {
         }
     };
 
-    OasisPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config) {
+    OasisPricingEnrichment(EnrichmentManager manager, WorkflowService workflowService, Config config,
+        SharedHttpClient httpClient, RateLimiters rateLimiters) {
         this.workflowService = workflowService;
-        this.connection = new OasisConnection(config);
+        this.connection = new OasisConnection(config, httpClient, rateLimiters.get(RateLimiters.OASIS));
 
         LOCAL_CURRENCY = config.getOasis().getLocalCurrency();
         MAX_RESULTS = config.getOasis().getMaxResults();
@@ -53,6 +58,16 @@ public class OasisPricingEnrichment implements EnrichmentService {
         log.debug("OasisPricingEnrichment ready");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.TITLE, EnrichmentType.CONTRIBUTOR);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.PRICING);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         String title = purchaseRequest.getTitle();
@@ -1,6 +1,8 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.priority;
 
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -41,6 +43,16 @@ public class PriorityEnrichment implements EnrichmentService {
         log.debug("PriorityEnrichment ready");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.of(EnrichmentType.REQUESTER_INFO);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.PRIORITY);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         String requestType = purchaseRequest.getRequestType();
@@ -1,7 +1,9 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.requester;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -46,6 +48,16 @@ public class RequesterEnrichment implements EnrichmentService {
         log.debug("RequesterEnrichment ready");
     }
 
+    @Override
+    public Set<EnrichmentType> getReads() {
+        return EnumSet.noneOf(EnrichmentType.class);
+    }
+
+    @Override
+    public Set<EnrichmentType> getWrites() {
+        return EnumSet.of(EnrichmentType.REQUESTER_INFO);
+    }
+
     @Override
     public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
         String username = purchaseRequest.getRequesterUsername();
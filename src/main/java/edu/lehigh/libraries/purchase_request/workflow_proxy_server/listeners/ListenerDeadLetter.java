@@ -0,0 +1,49 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * An event a listener still failed to handle after retries, kept so it can be retried by hand.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "listener_dead_letters")
+public class ListenerDeadLetter {
+
+    @Id
+    @Column(unique = true)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Simple class name of the listener.
+     */
+    @Column(nullable = false)
+    private String listener;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ListenerEvent event;
+
+    @Column(nullable = false)
+    private String purchaseRequestKey;
+
+    @Column(length = 2000)
+    private String error;
+
+    private Instant createdAt;
+
+}
@@ -0,0 +1,63 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@ConditionalOnWebApplication
+@Slf4j
+public class ListenerDeadLetterController {
+
+    private final ListenerDeadLetterRepository deadLetters;
+    private final ListenerDispatcher dispatcher;
+    private final WorkflowService workflowService;
+
+    ListenerDeadLetterController(ListenerDeadLetterRepository deadLetters, ListenerDispatcher dispatcher,
+        WorkflowService workflowService) {
+
+        this.deadLetters = deadLetters;
+        this.dispatcher = dispatcher;
+        this.workflowService = workflowService;
+    }
+
+    @GetMapping("/listeners/dead-letters")
+    List<ListenerDeadLetter> list() {
+        return deadLetters.findAll();
+    }
+
+    /**
+     * Deliver the event again, with the purchase request as it is now.
+     */
+    @PostMapping("/listeners/dead-letters/{id}/retry")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    void retry(@PathVariable Long id) {
+        ListenerDeadLetter deadLetter = deadLetters.findById(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No dead letter " + id));
+        PurchaseRequest purchaseRequest = workflowService.findByKey(deadLetter.getPurchaseRequestKey());
+        if (purchaseRequest == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, 
+                "Purchase request not found: " + deadLetter.getPurchaseRequestKey());
+        }
+        log.info("Retrying " + deadLetter.getEvent() + " for " + deadLetter.getListener() 
+            + " on " + deadLetter.getPurchaseRequestKey());
+        try {
+            dispatcher.redeliver(deadLetter, purchaseRequest);
+        }
+        catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+}
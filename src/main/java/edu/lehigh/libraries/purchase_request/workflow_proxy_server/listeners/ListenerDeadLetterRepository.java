@@ -0,0 +1,7 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ListenerDeadLetterRepository extends JpaRepository<ListenerDeadLetter, Long> {
+
+}
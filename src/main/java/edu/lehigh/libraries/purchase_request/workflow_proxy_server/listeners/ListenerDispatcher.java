@@ -0,0 +1,278 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.ExecutorConfig;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPatch;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.RetryUtil;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers workflow events to listeners without making the workflow service, or each other, wait on them.
+ *
+ * Each listener has its own queue, drained by at most one task at a time on the listener executor,
+ * so a listener sees events in the order they happened.  A failing delivery is retried; if it keeps 
+ * failing, the event is stored as a ListenerDeadLetter and the listener moves on to its next event.
+ * If the executor refuses a drain task, the events waiting for that listener are dead-lettered too,
+ * rather than left until its next event arrives.
+ */
+@Service
+@ConditionalOnWebApplication
+@Slf4j
+public class ListenerDispatcher {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long INITIAL_RETRY_INTERVAL_MS = 2000;
+    private static final long MAX_RETRY_INTERVAL_MS = 10000;
+
+    // Events handled per drain task before yielding the thread to other listeners.
+    private static final int DRAIN_BATCH = 50;
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final TaskExecutor executor;
+    private final ListenerDeadLetterRepository deadLetters;
+    private final List<ListenerQueue> queues = new CopyOnWriteArrayList<ListenerQueue>();
+
+    ListenerDispatcher(@Qualifier(ExecutorConfig.LISTENER) TaskExecutor executor,
+        ListenerDeadLetterRepository deadLetters) {
+
+        this.executor = executor;
+        this.deadLetters = deadLetters;
+    }
+
+    public void register(WorkflowServiceListener listener) {
+        queues.add(new ListenerQueue(listener));
+    }
+
+    /**
+     * Queue the event for every listener and return immediately.  Each listener gets its own copy of the request.
+     */
+    public void publish(ListenerEvent event, PurchaseRequest purchaseRequest) {
+        publish(event, purchaseRequest, null);
+    }
+
+    /**
+     * Queue the event for every listener, and run onHandled once each of them has received it or it has been
+     * stored as a dead letter for them.  If a dead letter can't be stored, onHandled never runs.
+     */
+    public void publish(ListenerEvent event, PurchaseRequest purchaseRequest, Runnable onHandled) {
+        Completion completion = onHandled == null ? null : new Completion(queues.size(), onHandled);
+        if (completion != null && queues.isEmpty()) {
+            completion.run();
+            return;
+        }
+        for (ListenerQueue queue : queues) {
+            queue.submit(new Delivery(event, PurchaseRequestPatch.copyOf(purchaseRequest), completion));
+        }
+    }
+
+    /**
+     * Deliver a dead-lettered event again, to the listener that failed it.  The dead letter is removed;
+     * if the delivery fails again, a new one is stored.
+     */
+    public void redeliver(ListenerDeadLetter deadLetter, PurchaseRequest purchaseRequest) {
+        ListenerQueue queue = queues.stream()
+            .filter(candidate -> candidate.name.equals(deadLetter.getListener()))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("No listener named " + deadLetter.getListener()));
+        deadLetters.delete(deadLetter);
+        queue.submit(new Delivery(deadLetter.getEvent(), purchaseRequest, null));
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> snapshots = new LinkedHashMap<String, Snapshot>();
+        for (ListenerQueue queue : queues) {
+            snapshots.put(queue.name, new Snapshot(queue.pending.size(), queue.delivered.get(), 
+                queue.deadLettered.get()));
+        }
+        return snapshots;
+    }
+
+    /**
+     * @return false if the dead letter couldn't be stored.
+     */
+    private boolean storeDeadLetter(String listenerName, ListenerEvent event, PurchaseRequest purchaseRequest,
+        Exception cause) {
+
+        try {
+            ListenerDeadLetter deadLetter = new ListenerDeadLetter();
+            deadLetter.setListener(listenerName);
+            deadLetter.setEvent(event);
+            deadLetter.setPurchaseRequestKey(purchaseRequest.getKey());
+            deadLetter.setError(StringUtils.abbreviate(String.valueOf(cause.getCause() != null 
+                ? cause.getCause() : cause), MAX_ERROR_LENGTH));
+            deadLetter.setCreatedAt(Instant.now());
+            deadLetters.save(deadLetter);
+            return true;
+        }
+        catch (Exception e) {
+            log.error("Could not store dead letter for " + listenerName + " " + event + ": ", e);
+            return false;
+        }
+    }
+
+    private class ListenerQueue {
+
+        private final WorkflowServiceListener listener;
+        private final String name;
+        private final Queue<Delivery> pending = new ConcurrentLinkedQueue<Delivery>();
+
+        // Set while a drain task is queued or running, so at most one delivers to this listener.
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong deadLettered = new AtomicLong();
+
+        private ListenerQueue(WorkflowServiceListener listener) {
+            this.listener = listener;
+            this.name = listener.getClass().getSimpleName();
+        }
+
+        private void submit(Delivery delivery) {
+            pending.add(delivery);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            }
+            catch (RuntimeException e) {
+                log.error("Could not schedule delivery to " + name + "; dead-lettering " + pending.size()
+                    + " events waiting: ", e);
+                deadLetterPending(e);
+                draining.set(false);
+                // Events added while dead-lettering
+                if (!pending.isEmpty()) {
+                    scheduleDrain();
+                }
+            }
+        }
+
+        private void deadLetterPending(Exception cause) {
+            Delivery delivery;
+            while ((delivery = pending.poll()) != null) {
+                deadLettered.incrementAndGet();
+                delivery.handled(storeDeadLetter(name, delivery.event, delivery.purchaseRequest, cause));
+            }
+        }
+
+        private void drain() {
+            try {
+                for (int i = 0; i < DRAIN_BATCH; i++) {
+                    Delivery delivery = pending.poll();
+                    if (delivery == null) {
+                        break;
+                    }
+                    deliver(delivery);
+                }
+            }
+            finally {
+                draining.set(false);
+            }
+            // Events added while finishing up, or beyond this batch
+            if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void deliver(Delivery delivery) {
+            PurchaseRequest purchaseRequest = delivery.purchaseRequest;
+            try {
+                MDC.put("key", purchaseRequest.getKey());
+                RetryUtil.executeWithRetry(name + " " + delivery.event, () -> {
+                    delivery.event.deliver(listener, purchaseRequest);
+                    return null;
+                }, MAX_ATTEMPTS, INITIAL_RETRY_INTERVAL_MS, MAX_RETRY_INTERVAL_MS);
+                delivered.incrementAndGet();
+                delivery.handled(true);
+            }
+            catch (Exception e) {
+                deadLettered.incrementAndGet();
+                log.error(name + " failed " + delivery.event + " after " + MAX_ATTEMPTS + " attempts; dead-lettered: ", e);
+                delivery.handled(storeDeadLetter(name, delivery.event, purchaseRequest, e));
+            }
+            finally {
+                MDC.remove("key");
+            }
+        }
+
+    }
+
+    @AllArgsConstructor
+    private static class Delivery {
+        private final ListenerEvent event;
+        private final PurchaseRequest purchaseRequest;
+        private final Completion completion;
+
+        private void handled(boolean stored) {
+            if (completion != null) {
+                completion.handled(stored);
+            }
+        }
+    }
+
+    /**
+     * Counts down the listeners an event is still waiting on.
+     */
+    private static class Completion {
+        private final AtomicInteger waiting;
+        private final AtomicBoolean lost = new AtomicBoolean(false);
+        private final Runnable onHandled;
+
+        private Completion(int listeners, Runnable onHandled) {
+            this.waiting = new AtomicInteger(listeners);
+            this.onHandled = onHandled;
+        }
+
+        private void handled(boolean stored) {
+            if (!stored) {
+                lost.set(true);
+            }
+            if (waiting.decrementAndGet() == 0 && !lost.get()) {
+                run();
+            }
+        }
+
+        private void run() {
+            try {
+                onHandled.run();
+            }
+            catch (Exception e) {
+                log.error("Could not record event as handled: ", e);
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final int queued;
+        private final long delivered;
+        private final long deadLettered;
+    }
+
+}
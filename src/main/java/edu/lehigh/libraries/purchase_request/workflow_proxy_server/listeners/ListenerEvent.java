@@ -0,0 +1,28 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners;
+
+import java.util.function.BiConsumer;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+
+/**
+ * The workflow transitions listeners are told about.
+ */
+public enum ListenerEvent {
+
+    REQUESTED(WorkflowServiceListener::purchaseRequested),
+    APPROVED(WorkflowServiceListener::purchaseApproved),
+    DENIED(WorkflowServiceListener::purchaseDenied),
+    RECEIVED(WorkflowServiceListener::purchaseReceived),
+    ARRIVED(WorkflowServiceListener::purchaseArrived);
+
+    private final BiConsumer<WorkflowServiceListener, PurchaseRequest> method;
+
+    ListenerEvent(BiConsumer<WorkflowServiceListener, PurchaseRequest> method) {
+        this.method = method;
+    }
+
+    void deliver(WorkflowServiceListener listener, PurchaseRequest purchaseRequest) {
+        method.accept(listener, purchaseRequest);
+    }
+
+}
@@ -30,8 +30,8 @@ public class FolioLocalMatchService implements MatchService {
     private final String ISBN_IDENTIFIER_TYPE;
     private final String OCLC_NUMBER_IDENTIFIER_TYPE;
 
-    FolioLocalMatchService(Config config) throws Exception {
-        this.connection = new FolioConnection(config);
+    FolioLocalMatchService(Config config, FolioConnection folioConnection) throws Exception {
+        this.connection = folioConnection;
 
         ISBN_IDENTIFIER_TYPE = config.getFolio().getIsbnIdentifierType();
         OCLC_NUMBER_IDENTIFIER_TYPE = config.getFolio().getOclcNumberIdentifierType();
@@ -12,8 +12,11 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplicat
 import org.springframework.stereotype.Service;
 
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.CircuitBreakers;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.ConnectionUtil;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcConnection;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcResponseCache;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.OclcTokenProvider;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.match.Match;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.match.MatchQuery;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.match.MatchService;
@@ -31,8 +34,9 @@ public class OclcLocalMatchService implements MatchService {
 
     private final String LOCAL_OCLC_SYMBOL;
 
-    OclcLocalMatchService(Config config) throws Exception {
-        this.oclcConnection = new OclcConnection(config, SCOPE);
+    OclcLocalMatchService(Config config, OclcTokenProvider tokenProvider,
+        OclcResponseCache responseCache, CircuitBreakers circuitBreakers) throws Exception {
+        this.oclcConnection = new OclcConnection(tokenProvider, responseCache, circuitBreakers, SCOPE);
 
         LOCAL_OCLC_SYMBOL = config.getOclc().getLocalInstitutionSymbol();
         log.debug("OclcLocalMatchService ready");
@@ -0,0 +1,79 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.outbox;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A purchase request accepted from a client and waiting to be saved to the storage backend.
+ * 
+ * Serialized as-is for the status endpoint, minus the fields only the outbox needs.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "purchase_request_outbox")
+public class OutboxEntry {
+
+    public enum Status {
+        PENDING, RUNNING, CREATED, FAILED;
+    }
+
+    @Id
+    @Column(unique = true)
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * The submitted purchase request, as JSON.
+     */
+    @Lob
+    @Column(nullable = false)
+    @JsonIgnore
+    private String payload;
+
+    @Column(nullable = false)
+    @JsonIgnore
+    private String clientName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    /**
+     * Key of the saved purchase request, once CREATED.
+     */
+    private String purchaseRequestKey;
+
+    /**
+     * The most recent error, if an attempt failed.
+     */
+    @Column(length = 2000)
+    private String error;
+
+    private int attempts;
+
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    /**
+     * A RUNNING entry isn't claimed again until this passes: either its worker disappeared, or it's waiting to retry.
+     */
+    @JsonIgnore
+    private Instant leaseExpiresAt;
+
+}
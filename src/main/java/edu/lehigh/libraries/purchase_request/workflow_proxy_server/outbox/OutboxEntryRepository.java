@@ -0,0 +1,44 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.outbox;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface OutboxEntryRepository extends JpaRepository<OutboxEntry, Long> {
+
+    @Query("select e.id from OutboxEntry e where e.status = :pending "
+        + "or (e.status = :running and e.leaseExpiresAt < :now) order by e.id")
+    List<Long> findClaimableIds(@Param("pending") OutboxEntry.Status pending,
+        @Param("running") OutboxEntry.Status running, @Param("now") Instant now, Pageable pageable);
+
+    /**
+     * @return 1 if this caller got the entry, 0 if another worker claimed it first.
+     */
+    @Transactional
+    @Modifying
+    @Query("update OutboxEntry e set e.status = :running, e.attempts = e.attempts + 1, "
+        + "e.leaseExpiresAt = :leaseExpiresAt, e.updatedAt = :now where e.id = :id "
+        + "and (e.status = :pending or (e.status = :running and e.leaseExpiresAt < :now))")
+    int claim(@Param("id") Long id, @Param("pending") OutboxEntry.Status pending,
+        @Param("running") OutboxEntry.Status running, @Param("now") Instant now,
+        @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update OutboxEntry e set e.status = :status, e.purchaseRequestKey = :key, e.error = :error, "
+        + "e.leaseExpiresAt = :leaseExpiresAt, e.updatedAt = :now where e.id = :id")
+    int complete(@Param("id") Long id, @Param("status") OutboxEntry.Status status, @Param("key") String key,
+        @Param("error") String error, @Param("leaseExpiresAt") Instant leaseExpiresAt, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("delete from OutboxEntry e where e.status in :statuses and e.updatedAt < :before")
+    int deleteFinishedBefore(@Param("statuses") List<OutboxEntry.Status> statuses, @Param("before") Instant before);
+
+}
@@ -0,0 +1,263 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.ExecutorConfig;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentManager;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.RetryUtil;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Purchase requests accepted without waiting for the storage backend.
+ *
+ * A submitted request is stored in the outbox table and saved to the backend by a fixed number of workers.
+ * Entries are kept after they finish, so clients can poll their status, until the retention period passes.
+ * 
+ * The saved request's key is recorded as soon as the backend save returns, and an entry with a key is never
+ * saved again, only finished.  So a request is saved twice only if the server stops, or the database fails,
+ * in the moment between the backend save and recording its key.
+ */
+@Service
+@ConditionalOnWebApplication
+@Slf4j
+public class PurchaseRequestOutbox {
+
+    private static final int CLAIM_BATCH = 10;
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final OutboxEntryRepository repository;
+    private final WorkflowService workflowService;
+    private final EnrichmentManager enrichmentManager;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler scheduler;
+    private final TaskExecutor workers;
+    private final Config.Outbox config;
+
+    private final Semaphore idleWorkers;
+
+    // Claiming queries the database, so use a lock rather than synchronized to avoid pinning a virtual thread.
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+
+    private volatile boolean started = false;
+
+    PurchaseRequestOutbox(OutboxEntryRepository repository, WorkflowService workflowService,
+        EnrichmentManager enrichmentManager, ObjectMapper objectMapper, TaskScheduler scheduler,
+        @Qualifier(ExecutorConfig.OUTBOX) TaskExecutor workers, Config config) {
+
+        this.repository = repository;
+        this.workflowService = workflowService;
+        this.enrichmentManager = enrichmentManager;
+        this.objectMapper = objectMapper;
+        this.scheduler = scheduler;
+        this.workers = workers;
+        this.config = config.getOutbox();
+        this.idleWorkers = new Semaphore(this.config.getWorkers());
+    }
+
+    /**
+     * Start saving, including any entries left from before a restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        started = true;
+        scheduler.scheduleWithFixedDelay(this::pollLoggingErrors, config.getPollInterval());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        started = false;
+    }
+
+    /**
+     * Store the purchase request for saving in the background.
+     */
+    public OutboxEntry submit(PurchaseRequest purchaseRequest, String clientName) {
+        OutboxEntry entry = new OutboxEntry();
+        try {
+            entry.setPayload(objectMapper.writeValueAsString(purchaseRequest));
+        }
+        catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize purchase request", e);
+        }
+        entry.setClientName(clientName);
+        entry.setStatus(OutboxEntry.Status.PENDING);
+        entry.setCreatedAt(Instant.now());
+        entry.setUpdatedAt(entry.getCreatedAt());
+        entry = repository.save(entry);
+        log.debug("Queued purchase request as outbox entry " + entry.getId());
+
+        dispatchLoggingErrors();
+        return entry;
+    }
+
+    /**
+     * @return The entry, or null if it doesn't exist or belongs to another client.
+     */
+    public OutboxEntry find(Long id, String clientName) {
+        return repository.findById(id)
+            .filter(entry -> entry.getClientName().equals(clientName))
+            .orElse(null);
+    }
+
+    private void pollLoggingErrors() {
+        try {
+            Instant before = Instant.now().minus(config.getRetention());
+            int deleted = repository.deleteFinishedBefore(
+                List.of(OutboxEntry.Status.CREATED, OutboxEntry.Status.FAILED), before);
+            if (deleted > 0) {
+                log.debug("Deleted " + deleted + " finished outbox entries.");
+            }
+        }
+        catch (Exception e) {
+            log.error("Could not delete finished outbox entries: ", e);
+        }
+        dispatchLoggingErrors();
+    }
+
+    private void dispatchLoggingErrors() {
+        try {
+            dispatch();
+        }
+        catch (Exception e) {
+            log.error("Could not dispatch outbox entries: ", e);
+        }
+    }
+
+    private void dispatch() {
+        dispatchLock.lock();
+        try {
+            while (started && idleWorkers.tryAcquire()) {
+                OutboxEntry entry = claimNext();
+                if (entry == null) {
+                    idleWorkers.release();
+                    return;
+                }
+                workers.execute(() -> {
+                    try {
+                        run(entry);
+                    }
+                    finally {
+                        idleWorkers.release();
+                        dispatchLoggingErrors();
+                    }
+                });
+            }
+        }
+        finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    private OutboxEntry claimNext() {
+        Instant now = Instant.now();
+        List<Long> ids = repository.findClaimableIds(OutboxEntry.Status.PENDING, OutboxEntry.Status.RUNNING,
+            now, PageRequest.of(0, CLAIM_BATCH));
+        for (Long id : ids) {
+            int claimed = repository.claim(id, OutboxEntry.Status.PENDING, OutboxEntry.Status.RUNNING,
+                now, now.plus(config.getLease()));
+            if (claimed == 1) {
+                return repository.findById(id).orElse(null);
+            }
+        }
+        return null;
+    }
+
+    private void run(OutboxEntry entry) {
+        try {
+            MDC.put("outbox", entry.getId().toString());
+            PurchaseRequest savedRequest;
+            try {
+                savedRequest = save(entry);
+            }
+            catch (Exception e) {
+                fail(entry, e);
+                return;
+            }
+
+            try {
+                enrichmentManager.notifyNewPurchaseRequest(savedRequest);
+            }
+            catch (Exception e) {
+                log.error("Could not notify enrichment of " + savedRequest.getKey() + ": ", e);
+            }
+
+            try {
+                repository.complete(entry.getId(), OutboxEntry.Status.CREATED, savedRequest.getKey(), null, null,
+                    Instant.now());
+            }
+            catch (Exception e) {
+                log.error("Could not mark outbox entry " + entry.getId() + " CREATED; it will be finished, "
+                    + "without saving again, when its lease expires: ", e);
+            }
+        }
+        finally {
+            MDC.remove("outbox");
+        }
+    }
+
+    /**
+     * Save the request to the backend and record its key, unless an earlier attempt already did.
+     */
+    private PurchaseRequest save(OutboxEntry entry) throws Exception {
+        PurchaseRequest purchaseRequest = objectMapper.readValue(entry.getPayload(), PurchaseRequest.class);
+        purchaseRequest.setClientName(entry.getClientName());
+        if (entry.getPurchaseRequestKey() != null) {
+            log.info("Outbox entry " + entry.getId() + " was already saved as " + entry.getPurchaseRequestKey());
+            purchaseRequest.setKey(entry.getPurchaseRequestKey());
+            return purchaseRequest;
+        }
+
+        PurchaseRequest savedRequest = workflowService.save(purchaseRequest);
+        log.debug("Saved outbox entry " + entry.getId() + " as " + savedRequest.getKey());
+        String key = savedRequest.getKey();
+        RetryUtil.executeWithRetry("Recording outbox entry key", () ->
+            repository.complete(entry.getId(), OutboxEntry.Status.RUNNING, key, null,
+                Instant.now().plus(config.getLease()), Instant.now()));
+        return savedRequest;
+    }
+
+    private void fail(OutboxEntry entry, Exception e) {
+        String error = StringUtils.abbreviate(String.valueOf(e.getMessage()), MAX_ERROR_LENGTH);
+        try {
+            if (entry.getAttempts() >= config.getMaxAttempts()) {
+                log.error("Giving up on outbox entry " + entry.getId() + " after " + entry.getAttempts() + " attempts: ", e);
+                repository.complete(entry.getId(), OutboxEntry.Status.FAILED, entry.getPurchaseRequestKey(), error,
+                    null, Instant.now());
+            }
+            else {
+                Duration delay = config.getRetryDelay().multipliedBy(entry.getAttempts());
+                log.warn("Outbox entry " + entry.getId() + " failed, retrying in " + delay + ": ", e);
+                repository.complete(entry.getId(), OutboxEntry.Status.RUNNING, entry.getPurchaseRequestKey(), error,
+                    Instant.now().plus(delay), Instant.now());
+            }
+        }
+        catch (Exception storeError) {
+            log.error("Could not record failure of outbox entry " + entry.getId() 
+                + "; it will be retried when its lease expires: ", storeError);
+        }
+    }
+
+}
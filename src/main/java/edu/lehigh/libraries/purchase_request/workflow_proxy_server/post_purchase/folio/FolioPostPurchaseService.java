@@ -26,8 +26,8 @@ public class FolioPostPurchaseService implements PostPurchaseService {
 
     private final FolioConnection connection;
 
-    public FolioPostPurchaseService(Config config) throws Exception {
-        this.connection = new FolioConnection(config);
+    public FolioPostPurchaseService(Config config, FolioConnection folioConnection) throws Exception {
+        this.connection = folioConnection;
 
         PROXY_PREFIX = config.getPostPurchase().getProxyPrefix();
 
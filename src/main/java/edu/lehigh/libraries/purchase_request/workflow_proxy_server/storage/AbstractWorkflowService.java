@@ -1,22 +1,24 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage;
 
-import java.util.LinkedList;
-import java.util.List;
-
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners.ListenerDispatcher;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners.ListenerEvent;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners.WorkflowServiceListener;
 
+/**
+ * Listeners are notified through the ListenerDispatcher, so notifying never waits on a listener.
+ */
 abstract public class AbstractWorkflowService implements WorkflowService {
 
-    private List<WorkflowServiceListener> listeners;
+    private final ListenerDispatcher listenerDispatcher;
 
-    protected AbstractWorkflowService() {        
-        listeners = new LinkedList<WorkflowServiceListener>();
+    protected AbstractWorkflowService(ListenerDispatcher listenerDispatcher) {
+        this.listenerDispatcher = listenerDispatcher;
     }
 
     @Override
     public void addListener(WorkflowServiceListener listener) {
-        listeners.add(listener);
+        listenerDispatcher.register(listener);
     }
 
     @Override
@@ -25,33 +27,30 @@ abstract public class AbstractWorkflowService implements WorkflowService {
     }
 
     protected void notifyPurchaseRequestCreated(PurchaseRequest createdRequest) {
-        for (WorkflowServiceListener listener : listeners) {
-            listener.purchaseRequested(createdRequest);
-        }
+        listenerDispatcher.publish(ListenerEvent.REQUESTED, createdRequest);
     }
     
     protected void notifyPurchaseRequestApproved(PurchaseRequest purchaseRequest) {
-        for (WorkflowServiceListener listener : listeners) {
-            listener.purchaseApproved(purchaseRequest);
-        }
+        listenerDispatcher.publish(ListenerEvent.APPROVED, purchaseRequest);
     }
 
     protected void notifyPurchaseRequestDenied(PurchaseRequest purchaseRequest) {
-        for (WorkflowServiceListener listener : listeners) {
-            listener.purchaseDenied(purchaseRequest);
-        }
+        listenerDispatcher.publish(ListenerEvent.DENIED, purchaseRequest);
     }
 
     protected void notifyPurchaseRequestReceived(PurchaseRequest purchaseRequest) {
-        for (WorkflowServiceListener listener : listeners) {
-            listener.purchaseReceived(purchaseRequest);
-        }
+        listenerDispatcher.publish(ListenerEvent.RECEIVED, purchaseRequest);
     }
 
     protected void notifyPurchaseRequestArrived(PurchaseRequest purchaseRequest) {
-        for (WorkflowServiceListener listener : listeners) {
-            listener.purchaseArrived(purchaseRequest);
-        }
+        listenerDispatcher.publish(ListenerEvent.ARRIVED, purchaseRequest);
+    }
+
+    /**
+     * Notify listeners, running onHandled once every one of them has the event or a dead letter for it.
+     */
+    protected void notifyListeners(ListenerEvent event, PurchaseRequest purchaseRequest, Runnable onHandled) {
+        listenerDispatcher.publish(event, purchaseRequest, onHandled);
     }
 
 }
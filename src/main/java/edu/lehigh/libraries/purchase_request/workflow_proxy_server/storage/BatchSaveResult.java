@@ -0,0 +1,50 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage;
+
+import java.util.List;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Outcome for one purchase request in a batch, reported at its position in the submitted list.
+ */
+@Getter @AllArgsConstructor(access = AccessLevel.PRIVATE) @ToString
+public class BatchSaveResult {
+
+    public enum Status {
+        CREATED, INVALID, FAILED;
+    }
+
+    private final int index;
+    private final Status status;
+
+    /**
+     * The saved purchase request, if CREATED.
+     */
+    private final PurchaseRequest purchaseRequest;
+
+    private final List<String> errors;
+
+    /**
+     * The same result, reported at a different position.
+     */
+    public BatchSaveResult atIndex(int newIndex) {
+        return new BatchSaveResult(newIndex, status, purchaseRequest, errors);
+    }
+
+    public static BatchSaveResult created(int index, PurchaseRequest purchaseRequest) {
+        return new BatchSaveResult(index, Status.CREATED, purchaseRequest, null);
+    }
+
+    public static BatchSaveResult invalid(int index, List<String> errors) {
+        return new BatchSaveResult(index, Status.INVALID, null, errors);
+    }
+
+    public static BatchSaveResult failed(int index, String error) {
+        return new BatchSaveResult(index, Status.FAILED, null, List.of(error));
+    }
+
+}
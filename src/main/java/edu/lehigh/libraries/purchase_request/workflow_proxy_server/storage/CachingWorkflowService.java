@@ -0,0 +1,189 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.model.SearchQuery;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners.WorkflowServiceListener;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.index.PurchaseRequestIndex;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.ExpiringCache;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through cache of findByKey in front of the configured storage backend.
+ *
+ * This is the WorkflowService injected everywhere.  Storage backends are marked with the BACKEND qualifier.
+ * Entries are evicted whenever this server changes a purchase request, and when the backend reports
+ * a change made elsewhere (see evict).  Callers always get their own copy of a cached request.
+ *
+ * When the search index is enabled and built, searches and listings without comments are answered from it,
+ * and every change made through here is written to it.
+ */
+@Service
+@Primary
+@ConditionalOnWebApplication
+@Slf4j
+public class CachingWorkflowService implements WorkflowService {
+
+    public static final String BACKEND = "workflowServiceBackend";
+
+    private final WorkflowService backend;
+    private final ExpiringCache<String, PurchaseRequest> cache;
+    private final PurchaseRequestIndex index;
+
+    CachingWorkflowService(@Qualifier(BACKEND) WorkflowService backend, PurchaseRequestIndex index, Config config) {
+        this.backend = backend;
+        this.index = index;
+        this.cache = new ExpiringCache<String, PurchaseRequest>(
+            config.getRequestCache().getMaxSize(), config.getRequestCache().getTtl());
+        log.debug("CachingWorkflowService ready, wrapping " + backend.getClass().getSimpleName());
+    }
+
+    /**
+     * Drop a purchase request from the cache, e.g. because it was changed directly in the backend.
+     */
+    public void evict(String key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public PurchaseRequest findByKey(String key) {
+        PurchaseRequest cached = cache.get(key);
+        if (cached != null) {
+            return PurchaseRequestPatch.copyOf(cached);
+        }
+        long generation = cache.getGeneration();
+        PurchaseRequest purchaseRequest = backend.findByKey(key);
+        if (purchaseRequest != null) {
+            cache.put(key, PurchaseRequestPatch.copyOf(purchaseRequest), generation);
+        }
+        return purchaseRequest;
+    }
+
+    @Override
+    public List<PurchaseRequest> findAll() {
+        return backend.findAll();
+    }
+
+    @Override
+    public List<PurchaseRequest> findAll(boolean includeComments) {
+        return backend.findAll(includeComments);
+    }
+
+    @Override
+    public PurchaseRequestPage findPage(String pageToken, int pageSize, boolean includeComments) {
+        if (index.isPageToken(pageToken) || (pageToken == null && !includeComments && index.isReady())) {
+            return index.findPage(pageToken, pageSize);
+        }
+        return backend.findPage(pageToken, pageSize, includeComments);
+    }
+
+    @Override
+    public String getWebUrl(PurchaseRequest purchaseRequest) {
+        return backend.getWebUrl(purchaseRequest);
+    }
+
+    @Override
+    public PurchaseRequest save(PurchaseRequest purchaseRequest) {
+        PurchaseRequest savedRequest = backend.save(purchaseRequest);
+        index.put(withReporter(savedRequest, purchaseRequest));
+        return savedRequest;
+    }
+
+    @Override
+    public List<BatchSaveResult> saveAll(List<PurchaseRequest> purchaseRequests) {
+        List<BatchSaveResult> results = backend.saveAll(purchaseRequests);
+        for (BatchSaveResult result : results) {
+            if (result.getStatus() == BatchSaveResult.Status.CREATED) {
+                index.put(withReporter(result.getPurchaseRequest(), purchaseRequests.get(result.getIndex())));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public List<PurchaseRequest> search(SearchQuery query) {
+        return search(query, false);
+    }
+
+    @Override
+    public List<PurchaseRequest> search(SearchQuery query, boolean includeComments) {
+        if (!includeComments && index.isReady()) {
+            return index.search(query);
+        }
+        return backend.search(query, includeComments);
+    }
+
+    @Override
+    public void enrich(PurchaseRequest purchaseRequest, EnrichmentType enrichmentType, Object data) {
+        try {
+            backend.enrich(purchaseRequest, enrichmentType, data);
+        }
+        finally {
+            evict(purchaseRequest.getKey());
+        }
+    }
+
+    @Override
+    public void flushEnrichments(PurchaseRequest purchaseRequest) {
+        try {
+            backend.flushEnrichments(purchaseRequest);
+            index.put(purchaseRequest);
+        }
+        finally {
+            evict(purchaseRequest.getKey());
+        }
+    }
+
+    @Override
+    public void initialEnrichmentComplete(PurchaseRequest purchaseRequest) {
+        backend.initialEnrichmentComplete(purchaseRequest);
+    }
+
+    @Override
+    public PurchaseRequest addComment(PurchaseRequest purchaseRequest, PurchaseRequest.Comment comment) {
+        try {
+            PurchaseRequest updatedRequest = backend.addComment(purchaseRequest, comment);
+            index.put(updatedRequest);
+            return updatedRequest;
+        }
+        finally {
+            evict(purchaseRequest.getKey());
+        }
+    }
+
+    /**
+     * Backends don't always return the reporter, so carry over the submitted one for the index.
+     */
+    private PurchaseRequest withReporter(PurchaseRequest savedRequest, PurchaseRequest submittedRequest) {
+        if (savedRequest == null || savedRequest.getReporterName() != null) {
+            return savedRequest;
+        }
+        PurchaseRequest copy = PurchaseRequestPatch.copyOf(savedRequest);
+        copy.setReporterName(submittedRequest.getReporterName());
+        return copy;
+    }
+
+    @Override
+    public void addListener(WorkflowServiceListener listener) {
+        backend.addListener(listener);
+    }
+
+    @Override
+    public List<String> getPermanentLocationOptions() {
+        return backend.getPermanentLocationOptions();
+    }
+
+    @Override
+    public List<String> getFundCodeOptions() {
+        return backend.getFundCodeOptions();
+    }
+
+}
@@ -0,0 +1,23 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage;
+
+import java.util.List;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * One page of purchase requests from a WorkflowService.
+ */
+@Getter @AllArgsConstructor @ToString
+public class PurchaseRequestPage {
+
+    private final List<PurchaseRequest> purchaseRequests;
+
+    /**
+     * Opaque token to request the following page, or null if this is the last page.
+     */
+    private final String nextPageToken;
+
+}
@@ -0,0 +1,107 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.springframework.beans.BeanUtils;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
+
+/**
+ * Applies enrichments to an in-memory PurchaseRequest, mirroring what a WorkflowService just stored,
+ * so callers can keep using their copy instead of reloading it from the backend.
+ *
+ * Enrichment services may run concurrently against one copy, so changes are made while holding its lock.
+ */
+public final class PurchaseRequestPatch {
+
+    private static final DateTimeFormatter COMMENT_DATE_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+    private PurchaseRequestPatch() {}
+
+    /**
+     * Set the field corresponding to an enrichment type.
+     *
+     * Comment-style enrichments (holdings, pricing, links) are appended to the post-request comments.
+     * Enrichments with no PurchaseRequest field, like priority, are ignored.
+     *
+     * @param data The value as stored; for LIBRARIANS this is the single assigned username.
+     */
+    public static void apply(PurchaseRequest purchaseRequest, EnrichmentType type, Object data) {
+        synchronized (purchaseRequest) {
+            switch (type) {
+                case OCLC_NUMBER:
+                    purchaseRequest.setOclcNumber((String)data);
+                    break;
+                case CALL_NUMBER:
+                    purchaseRequest.setCallNumber((String)data);
+                    break;
+                case REQUESTER_INFO:
+                    purchaseRequest.setRequesterInfo((String)data);
+                    break;
+                case LIBRARIANS:
+                    purchaseRequest.setLibrarianUsername((String)data);
+                    break;
+                case FUND_CODE:
+                    purchaseRequest.setFundCode((String)data);
+                    break;
+                case OBJECT_CODE:
+                    purchaseRequest.setObjectCode((String)data);
+                    break;
+                case TITLE:
+                    purchaseRequest.setTitle((String)data);
+                    break;
+                case CONTRIBUTOR:
+                    purchaseRequest.setContributor((String)data);
+                    break;
+                case LOCAL_HOLDINGS:
+                case PRICING:
+                case LINKS:
+                    addComment(purchaseRequest, (String)data);
+                    break;
+                case PRIORITY:
+                    break;
+            }
+        }
+    }
+
+    public static void addComment(PurchaseRequest purchaseRequest, String text) {
+        PurchaseRequest.Comment comment = new PurchaseRequest.Comment();
+        comment.setText(text);
+        comment.setCreationDate(ZonedDateTime.now().format(COMMENT_DATE_FORMAT));
+        synchronized (purchaseRequest) {
+            List<PurchaseRequest.Comment> comments = purchaseRequest.getPostRequestComments();
+            if (comments == null) {
+                comments = new LinkedList<PurchaseRequest.Comment>();
+                purchaseRequest.setPostRequestComments(comments);
+            }
+            comments.add(comment);
+        }
+    }
+
+    /**
+     * A working copy that can be patched without affecting the original.
+     */
+    public static PurchaseRequest copyOf(PurchaseRequest purchaseRequest) {
+        PurchaseRequest copy = new PurchaseRequest();
+        refresh(copy, purchaseRequest);
+        return copy;
+    }
+
+    /**
+     * Overwrite a working copy with freshly loaded data.
+     */
+    public static void refresh(PurchaseRequest target, PurchaseRequest fresh) {
+        synchronized (target) {
+            BeanUtils.copyProperties(fresh, target);
+            if (fresh.getPostRequestComments() != null) {
+                target.setPostRequestComments(new LinkedList<PurchaseRequest.Comment>(fresh.getPostRequestComments()));
+            }
+        }
+    }
+
+}
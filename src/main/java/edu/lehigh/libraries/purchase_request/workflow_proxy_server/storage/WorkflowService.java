@@ -1,5 +1,6 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
@@ -11,16 +12,72 @@ public interface WorkflowService {
     
     List<PurchaseRequest> findAll();
 
+    /**
+     * @param includeComments Also load each request's post-request comments, which may be costly.
+     */
+    default List<PurchaseRequest> findAll(boolean includeComments) {
+        return findAll();
+    }
+
+    /**
+     * Load purchase requests a page at a time, so callers can start on results without holding them all.
+     * 
+     * The default implementation returns everything from findAll as a single page.
+     * 
+     * @param pageToken Token from the previous page's nextPageToken, or null for the first page.
+     */
+    default PurchaseRequestPage findPage(String pageToken, int pageSize, boolean includeComments) {
+        return new PurchaseRequestPage(findAll(includeComments), null);
+    }
+
     PurchaseRequest findByKey(String key);
 
     String getWebUrl(PurchaseRequest purchaseRequest);
 
     PurchaseRequest save(PurchaseRequest purchaseRequest);
 
+    /**
+     * Save several purchase requests, reporting the outcome of each rather than failing them all together.
+     * 
+     * The default implementation saves them one at a time.
+     * 
+     * @return One result per purchase request, in the same order.
+     */
+    default List<BatchSaveResult> saveAll(List<PurchaseRequest> purchaseRequests) {
+        List<BatchSaveResult> results = new ArrayList<BatchSaveResult>(purchaseRequests.size());
+        for (int i = 0; i < purchaseRequests.size(); i++) {
+            try {
+                results.add(BatchSaveResult.created(i, save(purchaseRequests.get(i))));
+            }
+            catch (Exception e) {
+                results.add(BatchSaveResult.failed(i, String.valueOf(e.getMessage())));
+            }
+        }
+        return results;
+    }
+
     List<PurchaseRequest> search(SearchQuery query);
 
+    /**
+     * @param includeComments Also load each request's post-request comments, which may be costly.
+     */
+    default List<PurchaseRequest> search(SearchQuery query, boolean includeComments) {
+        return search(query);
+    }
+
+    /**
+     * Store an enrichment, and apply it to the given purchaseRequest (see PurchaseRequestPatch) so it
+     * reflects the change without being reloaded.
+     */
     void enrich(PurchaseRequest purchaseRequest, EnrichmentType enrichmentType, Object data);
 
+    /**
+     * Make sure all enrichments for this purchase request have been written to the backend,
+     * for implementations that buffer them.
+     */
+    default void flushEnrichments(PurchaseRequest purchaseRequest) {
+    }
+
     void initialEnrichmentComplete(PurchaseRequest purchaseRequest);
 
     PurchaseRequest addComment(PurchaseRequest purchaseRequest, PurchaseRequest.Comment comment);
@@ -0,0 +1,72 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.index;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A purchase request as last seen in the storage backend, with the fields searched on pulled out into
+ * indexed columns.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "purchase_request_index", indexes = {
+    @Index(name = "idx_purchase_request_index_reporter", columnList = "reporter_name"),
+    @Index(name = "idx_purchase_request_index_requester", columnList = "requester_username"),
+    @Index(name = "idx_purchase_request_index_status", columnList = "status"),
+    @Index(name = "idx_purchase_request_index_oclc_number", columnList = "oclc_number"),
+    @Index(name = "idx_purchase_request_index_created_at", columnList = "created_at")
+})
+public class IndexedPurchaseRequest {
+
+    @Id
+    private String purchaseRequestKey;
+
+    private String reporterName;
+
+    private String requesterUsername;
+
+    private String status;
+
+    /**
+     * Every ISBN in the request, normalized to digits and X, so each can be compared exactly.
+     */
+    @ElementCollection
+    @CollectionTable(name = "purchase_request_index_isbn",
+        joinColumns = @JoinColumn(name = "purchase_request_key"),
+        indexes = @Index(name = "idx_purchase_request_index_isbn", columnList = "isbn"))
+    @Column(name = "isbn", nullable = false)
+    private Set<String> isbns = new HashSet<String>();
+
+    private String oclcNumber;
+
+    private Instant createdAt;
+
+    /**
+     * The purchase request, as JSON, without its post-request comments.
+     */
+    @Lob
+    @Column(nullable = false)
+    private String document;
+
+    /**
+     * When this server last wrote the entry, so a rebuild doesn't overwrite a newer save with an older page.
+     */
+    @Column(nullable = false)
+    private Instant indexedAt;
+
+}
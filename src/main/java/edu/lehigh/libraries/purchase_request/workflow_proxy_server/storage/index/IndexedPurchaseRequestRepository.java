@@ -0,0 +1,44 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.index;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface IndexedPurchaseRequestRepository extends JpaRepository<IndexedPurchaseRequest, String> {
+
+    /**
+     * Null criteria match everything.
+     */
+    @Query("select i from IndexedPurchaseRequest i where (:isbn is null or :isbn member of i.isbns) "
+        + "and (:reporterName is null or i.reporterName = :reporterName) "
+        + "order by i.createdAt desc, i.purchaseRequestKey desc")
+    List<IndexedPurchaseRequest> search(@Param("isbn") String isbn, @Param("reporterName") String reporterName,
+        Pageable pageable);
+
+    @Query("select i from IndexedPurchaseRequest i order by i.createdAt desc, i.purchaseRequestKey desc")
+    List<IndexedPurchaseRequest> findNewest(Pageable pageable);
+
+    /**
+     * The ISBNs of entries deleteIndexedBefore is about to remove, since a bulk delete doesn't cascade.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "delete from purchase_request_index_isbn where purchase_request_key in "
+        + "(select purchase_request_key from purchase_request_index where indexed_at < :before)", nativeQuery = true)
+    int deleteIsbnsIndexedBefore(@Param("before") Instant before);
+
+    /**
+     * Remove entries a full rebuild didn't see, i.e. purchase requests deleted from the backend.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IndexedPurchaseRequest i where i.indexedAt < :before")
+    int deleteIndexedBefore(@Param("before") Instant before);
+
+}
@@ -0,0 +1,265 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.index;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.model.SearchQuery;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.CachingWorkflowService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPage;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPatch;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local copy of every purchase request, so searching and listing don't need to query the storage backend.
+ *
+ * Kept current by this server's own saves, enrichments and comments, by backend webhooks where available,
+ * and by a periodic full rebuild that also catches changes made directly in the backend.
+ * Until the first rebuild finishes, isReady() is false and callers should use the backend.
+ */
+@Service
+@ConditionalOnWebApplication
+@Slf4j
+public class PurchaseRequestIndex {
+
+    private static final String PAGE_TOKEN_PREFIX = "index:";
+
+    private static final DateTimeFormatter JIRA_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+
+    private final IndexedPurchaseRequestRepository repository;
+    private final WorkflowService backend;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler scheduler;
+    private final Config.SearchIndex config;
+    private final int pageSize;
+
+    private volatile boolean ready = false;
+
+    PurchaseRequestIndex(IndexedPurchaseRequestRepository repository,
+        @Qualifier(CachingWorkflowService.BACKEND) WorkflowService backend, ObjectMapper objectMapper,
+        TaskScheduler scheduler, Config config) {
+
+        this.repository = repository;
+        this.backend = backend;
+        this.objectMapper = objectMapper;
+        this.scheduler = scheduler;
+        this.config = config.getSearchIndex();
+        this.pageSize = config.getPageSize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::rebuildLoggingErrors, config.getResyncInterval());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Whether a page token came from findPage here, rather than from the backend.
+     */
+    public boolean isPageToken(String pageToken) {
+        return pageToken != null && pageToken.startsWith(PAGE_TOKEN_PREFIX);
+    }
+
+    public List<PurchaseRequest> search(SearchQuery query) {
+        Set<String> isbns = normalizeIsbns(query.getIsbn());
+        String isbn = isbns.isEmpty() ? null : isbns.iterator().next();
+        List<IndexedPurchaseRequest> entries = repository.search(isbn,
+            query.getReporterName(), PageRequest.of(0, config.getMaxSearchResults()));
+        return toPurchaseRequests(entries);
+    }
+
+    /**
+     * Newest first, like the backends.
+     */
+    public PurchaseRequestPage findPage(String pageToken, int pageSize) {
+        int page = pageToken == null ? 0 : Integer.parseInt(pageToken.substring(PAGE_TOKEN_PREFIX.length()));
+        List<IndexedPurchaseRequest> entries = repository.findNewest(PageRequest.of(page, pageSize));
+        String nextPageToken = entries.size() < pageSize ? null : PAGE_TOKEN_PREFIX + (page + 1);
+        return new PurchaseRequestPage(toPurchaseRequests(entries), nextPageToken);
+    }
+
+    /**
+     * Record the purchase request as this server just saved or changed it.
+     *
+     * Never throws: the index catches up at the next rebuild instead.
+     */
+    public void put(PurchaseRequest purchaseRequest) {
+        if (!config.isEnabled() || purchaseRequest == null || purchaseRequest.getKey() == null) {
+            return;
+        }
+        try {
+            upsert(purchaseRequest, Instant.now(), null);
+        }
+        catch (Exception e) {
+            log.warn("Could not index purchase request " + purchaseRequest.getKey() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Record one purchase request as just loaded from the backend, e.g. after a webhook reports a change
+     * made there.  Null if it couldn't be found, which removes it.
+     *
+     * Never throws: the index catches up at the next rebuild instead.
+     */
+    public void refresh(String key, PurchaseRequest purchaseRequest) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            if (purchaseRequest == null) {
+                repository.deleteById(key);
+            }
+            else {
+                upsert(purchaseRequest, Instant.now(), null);
+            }
+        }
+        catch (Exception e) {
+            log.warn("Could not refresh indexed purchase request " + key + ": " + e.getMessage());
+        }
+    }
+
+    private void rebuildLoggingErrors() {
+        try {
+            rebuild();
+        }
+        catch (Exception e) {
+            log.error("Could not rebuild purchase request index: ", e);
+        }
+    }
+
+    private void rebuild() {
+        Instant started = Instant.now();
+        int count = 0;
+        String pageToken = null;
+        do {
+            PurchaseRequestPage page = backend.findPage(pageToken, pageSize, false);
+            for (PurchaseRequest purchaseRequest : page.getPurchaseRequests()) {
+                upsert(purchaseRequest, Instant.now(), started);
+                count++;
+            }
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null);
+
+        repository.deleteIsbnsIndexedBefore(started);
+        int deleted = repository.deleteIndexedBefore(started);
+        ready = true;
+        log.info("Indexed " + count + " purchase requests, removed " + deleted + ", in "
+            + (Instant.now().toEpochMilli() - started.toEpochMilli()) + "ms.");
+    }
+
+    /**
+     * @param skipIfIndexedAfter Leave the entry alone if it was written after this time, or null to always write.
+     */
+    private void upsert(PurchaseRequest purchaseRequest, Instant now, Instant skipIfIndexedAfter) {
+        IndexedPurchaseRequest entry = repository.findById(purchaseRequest.getKey()).orElse(null);
+        if (entry == null) {
+            entry = new IndexedPurchaseRequest();
+            entry.setPurchaseRequestKey(purchaseRequest.getKey());
+        }
+        else if (skipIfIndexedAfter != null && entry.getIndexedAt().isAfter(skipIfIndexedAfter)) {
+            return;
+        }
+
+        PurchaseRequest document = PurchaseRequestPatch.copyOf(purchaseRequest);
+        document.setPostRequestComments(null);
+        if (document.getReporterName() == null) {
+            // Not every backend reports the reporter back, so keep the one recorded when it was saved here
+            document.setReporterName(entry.getReporterName());
+        }
+
+        entry.setReporterName(document.getReporterName());
+        entry.setRequesterUsername(document.getRequesterUsername());
+        entry.setStatus(document.getStatus());
+        entry.setIsbns(normalizeIsbns(document.getIsbn()));
+        entry.setOclcNumber(document.getOclcNumber());
+        entry.setCreatedAt(parseCreationDate(document.getCreationDate()));
+        try {
+            entry.setDocument(objectMapper.writeValueAsString(document));
+        }
+        catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+        entry.setIndexedAt(now);
+        repository.save(entry);
+    }
+
+    private List<PurchaseRequest> toPurchaseRequests(List<IndexedPurchaseRequest> entries) {
+        List<PurchaseRequest> purchaseRequests = new LinkedList<PurchaseRequest>();
+        for (IndexedPurchaseRequest entry : entries) {
+            try {
+                purchaseRequests.add(objectMapper.readValue(entry.getDocument(), PurchaseRequest.class));
+            }
+            catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return purchaseRequests;
+    }
+
+    /**
+     * Every ISBN in a field that may hold several, in order, normalized to digits and X.
+     */
+    static Set<String> normalizeIsbns(String isbn) {
+        Set<String> isbns = new LinkedHashSet<String>();
+        if (isbn == null) {
+            return isbns;
+        }
+        for (String token : isbn.split("[\\s,;]+")) {
+            String normalized = token.replaceAll("[^0-9Xx]", "").toUpperCase();
+            if (!normalized.isEmpty()) {
+                isbns.add(normalized);
+            }
+        }
+        return isbns;
+    }
+
+    /**
+     * Jira dates include an offset; Restyaboard dates are local to this server.
+     */
+    static Instant parseCreationDate(String creationDate) {
+        if (creationDate == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(creationDate, JIRA_DATE_FORMAT).toInstant();
+        }
+        catch (DateTimeParseException e) {
+            // fall through
+        }
+        try {
+            return LocalDateTime.parse(creationDate.replace(' ', 'T')).atZone(ZoneId.systemDefault()).toInstant();
+        }
+        catch (DateTimeParseException e) {
+            log.debug("Unrecognized creation date: " + creationDate);
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,238 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+import org.springframework.scheduling.TaskScheduler;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.JiraConnection;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind buffer for Jira issue field updates.
+ *
+ * Field changes for one issue are merged into a single "fields" payload, and sent as one PUT
+ * when the enrichment pass ends, when too many fields are pending, or after a maximum delay.
+ *
+ * If Jira rejects the update as invalid, the fields it names are dropped and the rest are sent again,
+ * one at a time if Jira didn't say which fields were wrong, so one bad value can't lose the others.  Any
+ * other failure puts the fields not yet written back to be sent with the next flush, up to MAX_SEND_ATTEMPTS
+ * times.
+ */
+@Slf4j
+class JiraFieldUpdateBuffer {
+
+    private static final int LOCK_STRIPES = 32;
+    private static final int MAX_SEND_ATTEMPTS = 3;
+
+    private final BiConsumer<String, JsonObject> writer;
+    private final TaskScheduler scheduler;
+    private final int maxFields;
+    private final Duration maxDelay;
+
+    // guarded by this
+    private final Map<String, PendingUpdate> pending = new HashMap<String, PendingUpdate>();
+
+    // Serializes PUTs for the same key, so a later update can't overtake an earlier one.
+    // Locks rather than synchronized, since the PUT blocks and would pin a virtual thread.
+    private final ReentrantLock[] sendLocks = new ReentrantLock[LOCK_STRIPES];
+
+    JiraFieldUpdateBuffer(BiConsumer<String, JsonObject> writer, TaskScheduler scheduler,
+        int maxFields, Duration maxDelay) {
+
+        this.writer = writer;
+        this.scheduler = scheduler;
+        this.maxFields = maxFields;
+        this.maxDelay = maxDelay;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            sendLocks[i] = new ReentrantLock();
+        }
+    }
+
+    void add(String key, String fieldName, JsonElement value) {
+        boolean full;
+        synchronized (this) {
+            PendingUpdate update = pendingUpdate(key);
+            update.fields.add(fieldName, value);
+            full = update.fields.size() >= maxFields;
+        }
+        if (full) {
+            flush(key);
+        }
+    }
+
+    void flush(String key) {
+        ReentrantLock sendLock = sendLocks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+        sendLock.lock();
+        try {
+            PendingUpdate update;
+            synchronized (this) {
+                update = pending.remove(key);
+            }
+            if (update == null) {
+                return;
+            }
+            update.scheduledFlush.cancel(false);
+
+            log.debug("Flushing " + update.fields.size() + " field updates for " + key);
+            try {
+                send(key, update.fields);
+            }
+            catch (JiraConnection.BadRequestException e) {
+                JsonObject unsent = update.fields.deepCopy();
+                try {
+                    sendValidFields(key, unsent, e);
+                }
+                catch (RuntimeException sendError) {
+                    requeue(key, unsent, update.attempts, sendError);
+                    throw sendError;
+                }
+            }
+            catch (RuntimeException e) {
+                requeue(key, update.fields, update.attempts, e);
+                throw e;
+            }
+        }
+        finally {
+            sendLock.unlock();
+        }
+    }
+
+    void flushAll() {
+        List<String> keys;
+        synchronized (this) {
+            keys = new ArrayList<String>(pending.keySet());
+        }
+        for (String key : keys) {
+            flushLoggingErrors(key);
+        }
+    }
+
+    private void flushLoggingErrors(String key) {
+        try {
+            flush(key);
+        }
+        catch (Exception e) {
+            log.error("Could not flush field updates for " + key + ": ", e);
+        }
+    }
+
+    /**
+     * Jira refused the whole update, so send the fields it didn't object to without the ones it did.
+     *
+     * @param unsent The fields to send.  Each is removed once Jira has stored or rejected it, so if sending
+     *     fails it holds just the fields still to be written.
+     */
+    private void sendValidFields(String key, JsonObject unsent, JiraConnection.BadRequestException e) {
+        Set<String> rejected = e.getRejectedFields();
+        boolean anyRejected = false;
+        for (String fieldName : new ArrayList<String>(unsent.keySet())) {
+            if (rejected.contains(fieldName)) {
+                log.error("Jira rejected " + fieldName + " = " + unsent.get(fieldName) + " for " + key);
+                unsent.remove(fieldName);
+                anyRejected = true;
+            }
+        }
+        if (unsent.size() == 0) {
+            return;
+        }
+        if (!anyRejected) {
+            if (unsent.size() == 1) {
+                log.error("Jira rejected " + unsent + " for " + key + ": " + e.getMessage());
+                clear(unsent);
+                return;
+            }
+            // Jira didn't name any of these fields, so find the bad ones by sending each on its own.
+            log.warn("Jira rejected field updates for " + key + ", sending them one at a time: " + e.getMessage());
+            for (String fieldName : new ArrayList<String>(unsent.keySet())) {
+                sendField(key, fieldName, unsent.get(fieldName));
+                unsent.remove(fieldName);
+            }
+            return;
+        }
+        try {
+            send(key, unsent.deepCopy());
+            clear(unsent);
+        }
+        catch (JiraConnection.BadRequestException retryError) {
+            sendValidFields(key, unsent, retryError);
+        }
+    }
+
+    private void sendField(String key, String fieldName, JsonElement value) {
+        JsonObject fields = new JsonObject();
+        fields.add(fieldName, value);
+        try {
+            send(key, fields);
+        }
+        catch (JiraConnection.BadRequestException e) {
+            log.error("Jira rejected " + fieldName + " = " + value + " for " + key + ": " + e.getMessage());
+        }
+    }
+
+    private void send(String key, JsonObject fields) {
+        JsonObject issueChanges = new JsonObject();
+        issueChanges.add("fields", fields);
+        writer.accept(key, issueChanges);
+    }
+
+    /**
+     * Put back fields that failed to send, unless a newer value for the field has been added since.
+     */
+    private void requeue(String key, JsonObject fields, int attempts, Exception e) {
+        if (fields.size() == 0) {
+            return;
+        }
+        if (attempts + 1 >= MAX_SEND_ATTEMPTS) {
+            log.error("Dropping " + fields.size() + " field updates for " + key + " after "
+                + MAX_SEND_ATTEMPTS + " attempts: " + fields);
+            return;
+        }
+        synchronized (this) {
+            PendingUpdate update = pendingUpdate(key);
+            update.attempts = Math.max(update.attempts, attempts + 1);
+            for (Map.Entry<String, JsonElement> field : fields.entrySet()) {
+                if (!update.fields.has(field.getKey())) {
+                    update.fields.add(field.getKey(), field.getValue());
+                }
+            }
+        }
+        log.warn("Could not send field updates for " + key + ", will retry: " + e.getMessage());
+    }
+
+    private static void clear(JsonObject fields) {
+        for (String fieldName : new ArrayList<String>(fields.keySet())) {
+            fields.remove(fieldName);
+        }
+    }
+
+    // guarded by this
+    private PendingUpdate pendingUpdate(String key) {
+        PendingUpdate update = pending.get(key);
+        if (update == null) {
+            update = new PendingUpdate();
+            pending.put(key, update);
+            update.scheduledFlush = scheduler.schedule(() -> flushLoggingErrors(key), Instant.now().plus(maxDelay));
+        }
+        return update;
+    }
+
+    private static class PendingUpdate {
+        private final JsonObject fields = new JsonObject();
+        private ScheduledFuture<?> scheduledFlush;
+        private int attempts;
+    }
+
+}
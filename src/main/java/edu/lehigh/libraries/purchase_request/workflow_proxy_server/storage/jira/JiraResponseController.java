@@ -3,11 +3,14 @@ package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.CachingWorkflowService;
 import lombok.extern.slf4j.Slf4j;
 
 @RestController
@@ -16,18 +19,28 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class JiraResponseController {
 
+    private static final String RETRY_AFTER_SECONDS = "60";
+
+    @Autowired
+    private CachingWorkflowService cache;
+
     @Autowired
-    private JiraWorkflowService service;
+    private JiraWebhookQueue webhookQueue;
 
+    /**
+     * Acknowledged as soon as the webhook is stored; see JiraWebhookQueue.  If the queue is full, Jira is
+     * asked to retry later.
+     */
     @PostMapping("/purchase-requests/status/{issueKey}")
-    void statusChanged(@PathVariable String issueKey) {
+    ResponseEntity<Void> statusChanged(@PathVariable String issueKey) {
         log.debug("Received message from Jira about key: " + issueKey);
-        notifyPurchaseRequestUpdated(issueKey);
-    }
-
-    @Async
-    void notifyPurchaseRequestUpdated(String issueKey) {
-        service.purchaseRequestUpdated(issueKey);
+        cache.evict(issueKey);
+        if (!webhookQueue.offer(issueKey)) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .build();
+        }
+        return ResponseEntity.accepted().build();
     }
     
 }
@@ -0,0 +1,84 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A Jira status webhook waiting to be handled.  There's at most one per issue: webhooks for an issue that's
+ * already waiting are counted as duplicates, and those for an issue being handled mark it to run again.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "jira_webhook_events")
+public class JiraWebhookEvent implements Persistable<String> {
+
+    public enum Status {
+        PENDING, RUNNING;
+    }
+
+    @Id
+    private String issueKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Status status;
+
+    /**
+     * A PENDING event runs once this passes.  A RUNNING one is assumed abandoned once it passes.
+     */
+    @Column(nullable = false)
+    private Instant dueAt;
+
+    /**
+     * Another webhook arrived while RUNNING, so handle the issue again afterwards.
+     */
+    private boolean rerun;
+
+    private int duplicates;
+
+    private int attempts;
+
+    private Instant receivedAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean stored;
+
+    @Override
+    public String getId() {
+        return issueKey;
+    }
+
+    /**
+     * A new row is always inserted, never merged, so a row stored first by another node makes the save fail
+     * instead of overwriting it.
+     */
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+
+}
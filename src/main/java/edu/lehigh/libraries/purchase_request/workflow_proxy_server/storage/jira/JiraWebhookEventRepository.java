@@ -0,0 +1,76 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface JiraWebhookEventRepository extends JpaRepository<JiraWebhookEvent, String> {
+
+    @Query("select e.issueKey from JiraWebhookEvent e where e.dueAt < :now order by e.dueAt")
+    List<String> findClaimableKeys(@Param("now") Instant now, Pageable pageable);
+
+    long countByStatus(JiraWebhookEvent.Status status);
+
+    /**
+     * @return 1 if this caller got the event, 0 if another worker claimed it first.
+     */
+    @Transactional
+    @Modifying
+    @Query("update JiraWebhookEvent e set e.status = :running, e.attempts = e.attempts + 1, "
+        + "e.dueAt = :leaseExpiresAt where e.issueKey = :issueKey and e.dueAt < :now")
+    int claim(@Param("issueKey") String issueKey, @Param("running") JiraWebhookEvent.Status running,
+        @Param("now") Instant now, @Param("leaseExpiresAt") Instant leaseExpiresAt);
+
+    /**
+     * @return 1 if the issue was already waiting, so this webhook counts as a duplicate.
+     */
+    @Transactional
+    @Modifying
+    @Query("update JiraWebhookEvent e set e.duplicates = e.duplicates + 1 "
+        + "where e.issueKey = :issueKey and e.status = :pending")
+    int addDuplicate(@Param("issueKey") String issueKey, @Param("pending") JiraWebhookEvent.Status pending);
+
+    /**
+     * @return 1 if the issue was being handled, and is now marked to be handled again afterwards.
+     */
+    @Transactional
+    @Modifying
+    @Query("update JiraWebhookEvent e set e.duplicates = e.duplicates + 1, e.rerun = true "
+        + "where e.issueKey = :issueKey and e.status = :running")
+    int requestRerun(@Param("issueKey") String issueKey, @Param("running") JiraWebhookEvent.Status running);
+
+    /**
+     * @return 1 if the event was finished, 0 if it needs to run again.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from JiraWebhookEvent e where e.issueKey = :issueKey and e.rerun = false")
+    int deleteUnlessRerun(@Param("issueKey") String issueKey);
+
+    /**
+     * Wait again as a fresh event, because a webhook arrived while it was handled.
+     */
+    @Transactional
+    @Modifying
+    @Query("update JiraWebhookEvent e set e.status = :pending, e.dueAt = :dueAt, e.rerun = false, e.attempts = 0 "
+        + "where e.issueKey = :issueKey")
+    int rerun(@Param("issueKey") String issueKey, @Param("pending") JiraWebhookEvent.Status pending,
+        @Param("dueAt") Instant dueAt);
+
+    /**
+     * Wait to try again after a failure, keeping the attempt count.  The retry covers any rerun requested.
+     */
+    @Transactional
+    @Modifying
+    @Query("update JiraWebhookEvent e set e.status = :pending, e.dueAt = :dueAt, e.rerun = false "
+        + "where e.issueKey = :issueKey")
+    int retry(@Param("issueKey") String issueKey, @Param("pending") JiraWebhookEvent.Status pending,
+        @Param("dueAt") Instant dueAt);
+
+}
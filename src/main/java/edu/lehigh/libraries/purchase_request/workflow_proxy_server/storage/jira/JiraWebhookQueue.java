@@ -0,0 +1,281 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.ExecutorConfig;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.index.PurchaseRequestIndex;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Jira status webhooks, stored as they arrive and handled in the background by the webhook executor.
+ *
+ * Storing them first lets the webhook be acknowledged right away, and survives a restart.  Each issue waits
+ * at most once: webhooks for an issue that's already waiting are dropped, so a burst for one transition is
+ * handled once, after the coalesce window.  A webhook for an issue being handled runs it again afterwards,
+ * so no change is missed.  Once the queue is full, new issues are refused so Jira retries them later.
+ *
+ * Issues whose status notification listeners never confirmed, e.g. because a restart lost it, are queued
+ * again as if a webhook had arrived.
+ */
+@Service
+@ConditionalOnProperty(name="workflow.storage", havingValue="jira")
+@ConditionalOnWebApplication
+@Slf4j
+public class JiraWebhookQueue {
+
+    private static final int CLAIM_BATCH = 10;
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final JiraWebhookEventRepository repository;
+    private final JiraWorkflowService service;
+    private final PurchaseRequestIndex index;
+    private final TaskScheduler scheduler;
+    private final TaskExecutor workers;
+    private final Config.Jira config;
+
+    private final Semaphore idleWorkers;
+
+    // Claiming queries the database, so use a lock rather than synchronized to avoid pinning a virtual thread.
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong handled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean started = false;
+
+    JiraWebhookQueue(JiraWebhookEventRepository repository, JiraWorkflowService service,
+        PurchaseRequestIndex index, TaskScheduler scheduler,
+        @Qualifier(ExecutorConfig.WEBHOOK) TaskExecutor workers, Config config) {
+
+        this.repository = repository;
+        this.service = service;
+        this.index = index;
+        this.scheduler = scheduler;
+        this.workers = workers;
+        this.config = config.getJira();
+        this.idleWorkers = new Semaphore(config.getExecutors().getWebhook().getMaxSize());
+    }
+
+    /**
+     * Start handling, including any webhooks left from before a restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        started = true;
+        scheduler.scheduleWithFixedDelay(this::pollLoggingErrors, config.getWebhookPollInterval());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        started = false;
+    }
+
+    /**
+     * Store a webhook about this issue to handle once the coalesce window closes.
+     *
+     * @return false if the queue is full and the webhook wasn't stored.
+     */
+    public boolean offer(String issueKey) {
+        received.incrementAndGet();
+        if (addDuplicate(issueKey)) {
+            return true;
+        }
+        if (repository.countByStatus(JiraWebhookEvent.Status.PENDING) >= config.getWebhookQueueCapacity()) {
+            rejected.incrementAndGet();
+            log.warn("Webhook queue full, refusing webhook for " + issueKey);
+            return false;
+        }
+
+        JiraWebhookEvent event = newEvent(issueKey);
+        try {
+            repository.save(event);
+        }
+        catch (DataIntegrityViolationException e) {
+            // Another webhook for this issue was stored first; count this one against it, unless it's already gone.
+            if (addDuplicate(issueKey)) {
+                return true;
+            }
+            event = repository.save(newEvent(issueKey));
+        }
+        scheduler.schedule(this::dispatchLoggingErrors, event.getDueAt());
+        return true;
+    }
+
+    private JiraWebhookEvent newEvent(String issueKey) {
+        Instant now = Instant.now();
+        JiraWebhookEvent event = new JiraWebhookEvent();
+        event.setIssueKey(issueKey);
+        event.setStatus(JiraWebhookEvent.Status.PENDING);
+        event.setReceivedAt(now);
+        event.setDueAt(now.plus(config.getWebhookCoalesceWindow()));
+        return event;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(repository.countByStatus(JiraWebhookEvent.Status.PENDING),
+            repository.countByStatus(JiraWebhookEvent.Status.RUNNING), config.getWebhookQueueCapacity(),
+            received.get(), coalesced.get(), rejected.get(), handled.get(), failed.get());
+    }
+
+    private boolean addDuplicate(String issueKey) {
+        if (repository.addDuplicate(issueKey, JiraWebhookEvent.Status.PENDING) == 1
+            || repository.requestRerun(issueKey, JiraWebhookEvent.Status.RUNNING) == 1) {
+
+            coalesced.incrementAndGet();
+            log.debug("Coalesced webhook for " + issueKey);
+            return true;
+        }
+        return false;
+    }
+
+    private void pollLoggingErrors() {
+        try {
+            requeueUnconfirmed();
+        }
+        catch (Exception e) {
+            log.error("Could not requeue unconfirmed status notifications: ", e);
+        }
+        dispatchLoggingErrors();
+    }
+
+    private void requeueUnconfirmed() {
+        Instant claimedBefore = Instant.now().minus(config.getNotificationRedeliveryDelay());
+        for (String issueKey : service.findUnconfirmedStatusChanges(claimedBefore, CLAIM_BATCH)) {
+            if (repository.existsById(issueKey)) {
+                continue;
+            }
+            try {
+                repository.save(newEvent(issueKey));
+                log.info("Requeued unconfirmed status notification for " + issueKey);
+            }
+            catch (DataIntegrityViolationException e) {
+                // A webhook for this issue arrived meanwhile
+            }
+        }
+    }
+
+    private void dispatchLoggingErrors() {
+        try {
+            dispatch();
+        }
+        catch (Exception e) {
+            log.error("Could not dispatch webhooks: ", e);
+        }
+    }
+
+    private void dispatch() {
+        dispatchLock.lock();
+        try {
+            while (started && idleWorkers.tryAcquire()) {
+                JiraWebhookEvent event = claimNext();
+                if (event == null) {
+                    idleWorkers.release();
+                    return;
+                }
+                workers.execute(() -> {
+                    try {
+                        run(event);
+                    }
+                    finally {
+                        idleWorkers.release();
+                        dispatchLoggingErrors();
+                    }
+                });
+            }
+        }
+        finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    private JiraWebhookEvent claimNext() {
+        Instant now = Instant.now();
+        List<String> keys = repository.findClaimableKeys(now, PageRequest.of(0, CLAIM_BATCH));
+        for (String key : keys) {
+            if (repository.claim(key, JiraWebhookEvent.Status.RUNNING, now, now.plus(LEASE)) == 1) {
+                return repository.findById(key).orElse(null);
+            }
+        }
+        return null;
+    }
+
+    private void run(JiraWebhookEvent event) {
+        String issueKey = event.getIssueKey();
+        try {
+            MDC.put("webhook", issueKey);
+            service.purchaseRequestUpdated(issueKey, purchaseRequest -> index.refresh(issueKey, purchaseRequest));
+            handled.incrementAndGet();
+            if (repository.deleteUnlessRerun(issueKey) == 0) {
+                Instant dueAt = Instant.now().plus(config.getWebhookCoalesceWindow());
+                repository.rerun(issueKey, JiraWebhookEvent.Status.PENDING, dueAt);
+                scheduler.schedule(this::dispatchLoggingErrors, dueAt);
+            }
+        }
+        catch (Exception e) {
+            fail(event, e);
+        }
+        finally {
+            MDC.remove("webhook");
+        }
+    }
+
+    private void fail(JiraWebhookEvent event, Exception e) {
+        String issueKey = event.getIssueKey();
+        try {
+            if (event.getAttempts() >= config.getWebhookMaxAttempts()) {
+                failed.incrementAndGet();
+                log.error("Giving up on webhook for " + issueKey + " after " + event.getAttempts() + " attempts: ", e);
+                repository.deleteById(issueKey);
+            }
+            else {
+                Duration delay = RETRY_DELAY.multipliedBy(event.getAttempts());
+                log.warn("Webhook for " + issueKey + " failed, retrying in " + delay + ": ", e);
+                repository.retry(issueKey, JiraWebhookEvent.Status.PENDING, Instant.now().plus(delay));
+            }
+        }
+        catch (Exception storeError) {
+            log.error("Could not record failure of webhook for " + issueKey
+                + "; it will be retried when its lease expires: ", storeError);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final long pending;
+        private final long running;
+        private final int capacity;
+        private final long received;
+        private final long coalesced;
+        private final long rejected;
+        private final long handled;
+        private final long failed;
+    }
+
+}
@@ -1,28 +1,51 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.model.SearchQuery;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.JiraConnection;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners.ListenerDispatcher;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners.ListenerEvent;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.AbstractWorkflowService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.BatchSaveResult;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.CachingWorkflowService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPage;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPatch;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.RetryUtil;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Qualifier(CachingWorkflowService.BACKEND)
 @ConditionalOnProperty(name="workflow.storage", havingValue="jira")
 @ConditionalOnWebApplication
 @Slf4j
@@ -30,9 +53,23 @@ public class JiraWorkflowService extends AbstractWorkflowService {
 
     private JiraConnection client;
     private Config config;
+    private JiraFieldUpdateBuffer fieldUpdateBuffer;
+    private TaskScheduler taskScheduler;
+    private NotifiedStatusRepository notifiedStatuses;
+
+    /**
+     * Allowed values of each field on the create screen, by field ID.  Replaced whole, never modified.
+     */
+    private volatile Map<String, List<String>> fieldOptions;
+
+    // Loading calls Jira, so use a lock rather than synchronized to avoid pinning a virtual thread.
+    private final ReentrantLock fieldOptionsLock = new ReentrantLock();
 
     private static final int SHORT_TEXT_FIELD_MAX_LENGTH = 255;
 
+    // Jira's maximum number of issues per bulk create request
+    private static final int BULK_CREATE_LIMIT = 50;
+
     private String REQUEST_TYPE_FIELD_ID = "labels";
 
     private String PROJECT_CODE;
@@ -67,12 +104,18 @@ public class JiraWorkflowService extends AbstractWorkflowService {
 
     private String TITLE_ISBN_ONLY_PREFIX;
 
-    public JiraWorkflowService(Config config) {
-        super();
+    public JiraWorkflowService(Config config, TaskScheduler taskScheduler, SharedHttpClient httpClient,
+        ListenerDispatcher listenerDispatcher, NotifiedStatusRepository notifiedStatuses) {
+
+        super(listenerDispatcher);
         this.config = config;
+        this.taskScheduler = taskScheduler;
+        this.notifiedStatuses = notifiedStatuses;
         initMetadata();
-        initConnection();
+        initConnection(httpClient);
         initUsers();
+        fieldUpdateBuffer = new JiraFieldUpdateBuffer(this::updateIssue, taskScheduler,
+            config.getJira().getEnrichmentBatchMaxFields(), config.getJira().getEnrichmentBatchMaxDelay());
         log.debug("JiraWorkflowService ready.");
     }
 
@@ -108,7 +151,7 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         TITLE_ISBN_ONLY_PREFIX = config.getCoreData().getTitle().getIsbnOnlyPrefix();
 
         SEARCH_RESULT_FIELDS = new String[] {
-            "id", "key", "status", "summary", "created", "updated", "labels", "description", "assignee",
+            "id", "key", "status", "summary", "created", "updated", "labels", "description", "assignee", "reporter",
             CONTRIBUTOR_FIELD_ID,
             ISBN_FIELD_ID,
             OCLC_NUMBER_FIELD_ID,
@@ -128,8 +171,8 @@ public class JiraWorkflowService extends AbstractWorkflowService {
 
     }
 
-    private void initConnection() {
-        this.client = new JiraConnection(this.config);
+    private void initConnection(SharedHttpClient httpClient) {
+        this.client = new JiraConnection(this.config, httpClient);
     }
 
     Map<String, String> userEmailToAccountId;
@@ -166,8 +209,13 @@ public class JiraWorkflowService extends AbstractWorkflowService {
 
     @Override
     public List<PurchaseRequest> findAll() {
+        return findAll(false);
+    }
+
+    @Override
+    public List<PurchaseRequest> findAll(boolean includeComments) {
         String jql = "project=" + PROJECT_CODE;
-        return searchJql(jql);
+        return searchJql(jql, includeComments);
     }
 
     @Override
@@ -193,6 +241,141 @@ public class JiraWorkflowService extends AbstractWorkflowService {
 
     @Override
     public PurchaseRequest save(PurchaseRequest purchaseRequest) {
+        JsonObject issue = buildIssue(purchaseRequest);
+
+        // Save stub issue
+        JsonObject response;
+        try {
+            response = client.executePost("issue", issue);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        String key = response.get("key").getAsString();
+        JsonObject createdIssue;
+        try {
+            createdIssue = getByKey(key);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        PurchaseRequest createdRequest = toPurchaseRequest(createdIssue);
+
+        // Set status if appropriate
+        if (purchaseRequest.getStatus() != null) {
+            setInitialStatus(purchaseRequest, key);
+            createdRequest = findByKey(key);
+        }
+
+        return createdRequest;
+    }
+
+    /**
+     * Creates issues through Jira's bulk create API, BULK_CREATE_LIMIT at a time, then loads them back
+     * with one search per chunk.  Jira creates what it can from each chunk and reports the rest individually.
+     */
+    @Override
+    public List<BatchSaveResult> saveAll(List<PurchaseRequest> purchaseRequests) {
+        List<BatchSaveResult> results = new ArrayList<BatchSaveResult>(purchaseRequests.size());
+        for (int start = 0; start < purchaseRequests.size(); start += BULK_CREATE_LIMIT) {
+            List<PurchaseRequest> chunk = purchaseRequests.subList(start,
+                Math.min(start + BULK_CREATE_LIMIT, purchaseRequests.size()));
+            List<BatchSaveResult> chunkResults = saveChunk(chunk);
+            for (BatchSaveResult result : chunkResults) {
+                results.add(result.atIndex(start + result.getIndex()));
+            }
+        }
+        return results;
+    }
+
+    private List<BatchSaveResult> saveChunk(List<PurchaseRequest> chunk) {
+        JsonArray issueUpdates = new JsonArray();
+        for (PurchaseRequest purchaseRequest : chunk) {
+            issueUpdates.add(buildIssue(purchaseRequest));
+        }
+        JsonObject body = new JsonObject();
+        body.add("issueUpdates", issueUpdates);
+
+        JsonObject response;
+        try {
+            response = client.executePost("issue/bulk", body);
+        }
+        catch (Exception e) {
+            // Jira answers 400 when nothing in the chunk could be created, still listing the errors per issue.
+            response = parseBulkErrorResponse(e);
+            if (response == null) {
+                log.error("Bulk create failed: ", e);
+                List<BatchSaveResult> failed = new ArrayList<BatchSaveResult>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    failed.add(BatchSaveResult.failed(i, String.valueOf(e.getMessage())));
+                }
+                return failed;
+            }
+        }
+
+        Map<Integer, String> errors = new HashMap<Integer, String>();
+        if (response.has("errors")) {
+            for (JsonElement error : response.getAsJsonArray("errors")) {
+                JsonObject errorObject = error.getAsJsonObject();
+                errors.put(errorObject.get("failedElementNumber").getAsInt(),
+                    errorObject.has("elementErrors") ? errorObject.get("elementErrors").toString() : errorObject.toString());
+            }
+        }
+
+        // Created issues are listed in submission order, skipping the failed ones.
+        Iterator<JsonElement> createdIssues = response.has("issues") 
+            ? response.getAsJsonArray("issues").iterator() : Collections.emptyIterator();
+        Map<Integer, String> createdKeys = new HashMap<Integer, String>();
+        for (int i = 0; i < chunk.size(); i++) {
+            if (!errors.containsKey(i) && createdIssues.hasNext()) {
+                String key = createdIssues.next().getAsJsonObject().get("key").getAsString();
+                createdKeys.put(i, key);
+                if (chunk.get(i).getStatus() != null) {
+                    try {
+                        setInitialStatus(chunk.get(i), key);
+                    }
+                    catch (Exception e) {
+                        log.error("Could not set initial status of " + key + ": ", e);
+                    }
+                }
+            }
+        }
+
+        Map<String, PurchaseRequest> created = new HashMap<String, PurchaseRequest>();
+        if (!createdKeys.isEmpty()) {
+            String jql = "key in (" + String.join(",", createdKeys.values()) + ")";
+            for (PurchaseRequest purchaseRequest : searchJqlPage(jql, null, createdKeys.size(), false).getPurchaseRequests()) {
+                created.put(purchaseRequest.getKey(), purchaseRequest);
+            }
+        }
+
+        List<BatchSaveResult> results = new ArrayList<BatchSaveResult>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String key = createdKeys.get(i);
+            if (key == null) {
+                results.add(BatchSaveResult.failed(i, errors.getOrDefault(i, "Not created")));
+                continue;
+            }
+            PurchaseRequest createdRequest = created.get(key);
+            if (createdRequest == null) {
+                // Search results can lag just behind creation
+                createdRequest = findByKey(key);
+            }
+            results.add(createdRequest != null ? BatchSaveResult.created(i, createdRequest)
+                : BatchSaveResult.failed(i, "Created " + key + " but could not load it"));
+        }
+        return results;
+    }
+
+    private JsonObject parseBulkErrorResponse(Exception e) {
+        try {
+            JsonObject response = JsonParser.parseString(e.getMessage()).getAsJsonObject();
+            return response.has("errors") ? response : null;
+        }
+        catch (RuntimeException notJson) {
+            return null;
+        }
+    }
+
+    private JsonObject buildIssue(PurchaseRequest purchaseRequest) {
         JsonObject issue = new JsonObject();
         JsonObject fields = new JsonObject();
         fields.add("project", createStringObject("key", PROJECT_CODE));
@@ -221,30 +404,7 @@ public class JiraWorkflowService extends AbstractWorkflowService {
             addParagraphField(fields, "description", purchaseRequest.getRequesterComments());  
         }
         issue.add("fields", fields);
-
-        // Save stub issue
-        JsonObject response;
-        try {
-            response = client.executePost("issue", issue);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        String key = response.get("key").getAsString();
-        JsonObject createdIssue;
-        try {
-            createdIssue = getByKey(key);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        PurchaseRequest createdRequest = toPurchaseRequest(createdIssue);
-
-        // Set status if appropriate
-        if (purchaseRequest.getStatus() != null) {
-            setInitialStatus(purchaseRequest, key);
-            createdRequest = findByKey(key);
-        }
-
-        return createdRequest;
+        return issue;
     }
 
     private void setSummary(JsonObject fields, PurchaseRequest purchaseRequest) {
@@ -350,6 +510,11 @@ public class JiraWorkflowService extends AbstractWorkflowService {
 
     @Override
     public List<PurchaseRequest> search(SearchQuery query) {
+        return search(query, false);
+    }
+
+    @Override
+    public List<PurchaseRequest> search(SearchQuery query, boolean includeComments) {
         String jql = "project=" + PROJECT_CODE;
         if (query.getIsbn() != null) {
             jql += " and " + "isbn ~ '" + query.getIsbn() + "' ";
@@ -360,22 +525,44 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         }
         jql += "order by created DESC";
         log.debug("jql: " + jql);
-        return searchJql(jql);
+        return searchJql(jql, includeComments);
     }
 
-    private List<PurchaseRequest> searchJql(String jql) {
+    @Override
+    public PurchaseRequestPage findPage(String pageToken, int pageSize, boolean includeComments) {
+        String jql = "project=" + PROJECT_CODE + " order by created DESC";
+        return searchJqlPage(jql, pageToken, pageSize, includeComments);
+    }
+
+    private List<PurchaseRequest> searchJql(String jql, boolean includeComments) {
+        return searchJqlPage(jql, null, MAX_SEARCH_RESULTS, includeComments).getPurchaseRequests();
+    }
+
+    private PurchaseRequestPage searchJqlPage(String jql, String pageToken, int pageSize, boolean includeComments) {
+        String fields = String.join(",", SEARCH_RESULT_FIELDS);
+        if (includeComments) {
+            // Comments come back with each issue, rather than one extra request per issue
+            fields += ",comment";
+        }
+        Map<String, String> params = new HashMap<String, String>();
+        params.put("jql", jql);
+        params.put("fields", fields);
+        params.put("maxResults", Integer.toString(pageSize));
+        if (pageToken != null) {
+            params.put("nextPageToken", pageToken);
+        }
         try {
-            JsonObject result = client.executeGet("search/jql", Map.of(
-                "jql", jql,
-                "fields", String.join(",", SEARCH_RESULT_FIELDS),
-                "maxResults", MAX_SEARCH_RESULTS.toString()
-            ));
+            JsonObject result = client.executeGet("search/jql", params);
             List<PurchaseRequest> list = new LinkedList<PurchaseRequest>();
             result.getAsJsonArray("issues").forEach((issue) -> {
                 PurchaseRequest purchaseRequest = toPurchaseRequest(issue.getAsJsonObject());
                 list.add(purchaseRequest);
             });
-            return list;
+            String nextPageToken = null;
+            if (result.has("nextPageToken") && !result.get("nextPageToken").isJsonNull()) {
+                nextPageToken = result.get("nextPageToken").getAsString();
+            }
+            return new PurchaseRequestPage(list, nextPageToken);
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
@@ -422,6 +609,11 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         else {
             throw new IllegalArgumentException("Unknown enrichment type " + type);
         }
+
+        // The assignee is patched by enrichAssignee once the username is resolved
+        if (EnrichmentType.LIBRARIANS != type) {
+            PurchaseRequestPatch.apply(purchaseRequest, type, data);
+        }
     }
 
     private void enrichComment(PurchaseRequest purchaseRequest, String message) {
@@ -470,6 +662,7 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         }
 
         enrichField(purchaseRequest, "assignee", createStringObject("id", userId));
+        PurchaseRequestPatch.apply(purchaseRequest, EnrichmentType.LIBRARIANS, username);
     }
 
     private void enrichFundCode(PurchaseRequest purchaseRequest, String fundCode) {
@@ -485,11 +678,9 @@ public class JiraWorkflowService extends AbstractWorkflowService {
     }
 
     private void enrichTitle(PurchaseRequest purchaseRequest, String title) {
-        JsonObject issueChanges = new JsonObject();
         JsonObject fields = new JsonObject();
         setSummary(fields, title, null);
-        issueChanges.add("fields", fields);
-        updateIssue(purchaseRequest, issueChanges);
+        enrichField(purchaseRequest, "summary", fields.get("summary"));
     }
 
     private void enrichContributor(PurchaseRequest purchaseRequest, String contributor) {
@@ -511,20 +702,27 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         return updatedRequest;
     }
 
+    /**
+     * Field enrichments are buffered and sent together; see flushEnrichments().
+     */
     private void enrichField(PurchaseRequest purchaseRequest, String fieldName, JsonElement value) {
-        JsonObject issueChanges = new JsonObject();
-        JsonObject fields = new JsonObject();
-        fields.add(fieldName, value);
-        issueChanges.add("fields", fields);
-        updateIssue(purchaseRequest, issueChanges);
+        fieldUpdateBuffer.add(purchaseRequest.getKey(), fieldName, value);
     }
 
     private void enrichShortTextField(PurchaseRequest purchaseRequest, String fieldName, String value) {
-        JsonObject issueChanges = new JsonObject();
         JsonObject fields = new JsonObject();
         addShortTextField(fields, fieldName, value);
-        issueChanges.add("fields", fields);
-        updateIssue(purchaseRequest, issueChanges);
+        enrichField(purchaseRequest, fieldName, fields.get(fieldName));
+    }
+
+    @Override
+    public void flushEnrichments(PurchaseRequest purchaseRequest) {
+        fieldUpdateBuffer.flush(purchaseRequest.getKey());
+    }
+
+    @PreDestroy
+    void flushAllEnrichments() {
+        fieldUpdateBuffer.flushAll();
     }
 
     private void addSelectField(JsonObject fields, String fieldName, String value) {
@@ -544,9 +742,12 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         fields.addProperty(fieldName, value);
     }
 
-    private void updateIssue(PurchaseRequest purchaseRequest, JsonObject issueChanges) {
+    private void updateIssue(String key, JsonObject issueChanges) {
         try {
-            client.executePut("issue/" + purchaseRequest.getKey(), issueChanges);
+            client.executePut("issue/" + key, issueChanges);
+        }
+        catch (JiraConnection.BadRequestException e) {
+            throw e;
         }
         catch (Exception e) {
             throw new RuntimeException(e);
@@ -568,6 +769,7 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         purchaseRequest.setDestination(getStringValue(issue, DESTINATION_FIELD_ID));
         purchaseRequest.setClientName(getStringValue(issue, CLIENT_NAME_FIELD_ID));
         purchaseRequest.setRequestType(getIssueRequestType(issue));
+        purchaseRequest.setReporterName(getIssueReporter(issue));
         purchaseRequest.setRequesterUsername(getStringValue(issue, REQUESTER_USERNAME_FIELD_ID));
         purchaseRequest.setRequesterInfo(getStringValue(issue, REQUESTER_INFO_FIELD_ID));
         purchaseRequest.setRequesterComments(getIssueRequesterComments(issue));
@@ -647,16 +849,53 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         }
     }
 
+    /**
+     * The reporter as a username, the reverse of usernameToEmail, or null if the issue was retrieved without it.
+     */
+    private String getIssueReporter(JsonObject issue) {
+        JsonElement reporterElement = issue.get("fields").getAsJsonObject().get("reporter");
+        if (reporterElement == null || reporterElement.isJsonNull()) {
+            return null;
+        }
+        JsonElement emailElement = reporterElement.getAsJsonObject().get("emailAddress");
+        if (emailElement == null || emailElement.isJsonNull()) {
+            return null;
+        }
+        String email = emailElement.getAsString();
+        if (config.getEmail() == null) {
+            return email;
+        }
+        String domainSuffix = "@" + config.getEmail().getAddressDomain();
+        if (email.endsWith(domainSuffix)) {
+            return email.substring(0, email.length() - domainSuffix.length());
+        }
+        return email;
+    }
+
+    /**
+     * Comments embedded in the issue's "comment" field, or null if the issue was retrieved without it.
+     * 
+     * Only falls back to a separate comments request if Jira truncated the embedded list.
+     */
     private List<PurchaseRequest.Comment> getIssueComments(JsonObject issue) {
-        List<PurchaseRequest.Comment> prComments = new LinkedList<PurchaseRequest.Comment>();
-        JsonObject response;
-        try {
-            response = client.executeGet("issue/" + issue.get("key").getAsString() + "/comment");
+        JsonElement commentField = issue.get("fields").getAsJsonObject().get("comment");
+        if (commentField == null || commentField.isJsonNull()) {
+            return null;
         }
-        catch (Exception e) {
-            throw new RuntimeException(e);
+
+        JsonObject commentPage = commentField.getAsJsonObject();
+        JsonArray comments = commentPage.get("comments").getAsJsonArray();
+        if (commentPage.has("total") && commentPage.get("total").getAsInt() > comments.size()) {
+            try {
+                comments = client.executeGet("issue/" + issue.get("key").getAsString() + "/comment")
+                    .get("comments").getAsJsonArray();
+            }
+            catch (Exception e) {
+                throw new RuntimeException(e);
+            }
         }
-        JsonArray comments = response.get("comments").getAsJsonArray();
+
+        List<PurchaseRequest.Comment> prComments = new LinkedList<PurchaseRequest.Comment>();
         for (JsonElement commentElement : comments) {
             JsonObject comment = commentElement.getAsJsonObject();
             PurchaseRequest.Comment prComment = new PurchaseRequest.Comment();
@@ -685,33 +924,98 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         return comments.toString();
     }
 
-    void purchaseRequestUpdated(String key) {
+    /**
+     * Notify listeners of the issue's new status, if they haven't been already.
+     *
+     * @param onLoaded Given the purchase request as loaded for the notification, or null if it couldn't be,
+     *     before listeners are notified, so other copies can be updated without loading it again.
+     */
+    void purchaseRequestUpdated(String key, Consumer<PurchaseRequest> onLoaded) {
         JsonObject issue;
         try {
             issue = getByKey(key);
         }
         catch(Exception ex) {
             log.info("Got purchase updated message for unknown key: " + key, ex);
+            onLoaded.accept(null);
             return;
         }
         
         PurchaseRequest purchaseRequest = toPurchaseRequest(issue);
+        onLoaded.accept(purchaseRequest);
         Long statusId = getIssueStatusId(issue);
+        if (!claimStatusChange(key, statusId)) {
+            log.debug("Already notified listeners of status " + statusId + " for " + key);
+            return;
+        }
+        ListenerEvent event = null;
         if (APPROVED_STATUS_ID.equals(statusId)) {
-            notifyPurchaseRequestApproved(purchaseRequest);
+            event = ListenerEvent.APPROVED;
         }
         else if (DENIED_STATUS_ID.contains(statusId)) {
-            notifyPurchaseRequestDenied(purchaseRequest);
+            event = ListenerEvent.DENIED;
         }
         else if (RECEIVED_STATUS_ID.equals(statusId)) {
-            notifyPurchaseRequestReceived(purchaseRequest);
+            event = ListenerEvent.RECEIVED;
         }
         else if (ARRIVED_STATUS_ID.equals(statusId)) {
-            notifyPurchaseRequestArrived(purchaseRequest);
+            event = ListenerEvent.ARRIVED;
         }
         else {
             log.warn("Ignoring purchase request updated with unhandled status: " + statusId);
+            confirmStatusChange(key, statusId);
+            return;
         }
+        notifyListeners(event, purchaseRequest, () -> confirmStatusChange(key, statusId));
+    }
+
+    /**
+     * Record that listeners are being notified of the issue's status, so each transition is announced once.
+     * 
+     * Every status is recorded, including unhandled ones, so moving back to a status announces it again.
+     * A claim that was never confirmed is taken again once notificationRedeliveryDelay has passed.
+     * 
+     * @return false if listeners were already notified of this status, or are being notified now.
+     */
+    private boolean claimStatusChange(String key, Long statusId) {
+        Instant now = Instant.now();
+        if (notifiedStatuses.changeStatus(key, statusId, now) == 1) {
+            return true;
+        }
+        Instant claimedBefore = now.minus(config.getJira().getNotificationRedeliveryDelay());
+        if (notifiedStatuses.reclaim(key, statusId, claimedBefore, now) == 1) {
+            log.warn("Listeners never confirmed status " + statusId + " for " + key + "; notifying them again");
+            return true;
+        }
+        if (notifiedStatuses.existsById(key)) {
+            return false;
+        }
+        NotifiedStatus notifiedStatus = new NotifiedStatus();
+        notifiedStatus.setIssueKey(key);
+        notifiedStatus.setStatusId(statusId);
+        notifiedStatus.setNotifiedAt(now);
+        try {
+            notifiedStatuses.save(notifiedStatus);
+            return true;
+        }
+        catch (DataIntegrityViolationException e) {
+            // Another webhook for this issue recorded it first
+            return false;
+        }
+    }
+
+    /**
+     * Record that every listener has the notification of this status.
+     */
+    private void confirmStatusChange(String key, Long statusId) {
+        notifiedStatuses.confirm(key, statusId, Instant.now());
+    }
+
+    /**
+     * Issues whose status notification was claimed before claimedBefore and never confirmed.
+     */
+    List<String> findUnconfirmedStatusChanges(Instant claimedBefore, int limit) {
+        return notifiedStatuses.findUnconfirmedKeys(claimedBefore, PageRequest.of(0, limit));
     }
 
     public List<String> getPermanentLocationOptions() {
@@ -722,27 +1026,88 @@ public class JiraWorkflowService extends AbstractWorkflowService {
         return getFieldOptions(FUND_CODE_FIELD_ID);
     }
 
+    /**
+     * Load the field options now and then keep them current, so requests for them never wait on Jira.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void startFieldOptionsRefresh() {
+        taskScheduler.scheduleWithFixedDelay(this::refreshFieldOptionsLoggingErrors,
+            config.getJira().getFieldOptionsRefreshInterval());
+    }
+
     private List<String> getFieldOptions(String fieldId) {
+        Map<String, List<String>> options = fieldOptions;
+        if (options == null) {
+            fieldOptionsLock.lock();
+            try {
+                if (fieldOptions == null) {
+                    fieldOptions = loadFieldOptions();
+                }
+                options = fieldOptions;
+            }
+            finally {
+                fieldOptionsLock.unlock();
+            }
+        }
+        List<String> fieldValues = options.get(fieldId);
+        if (fieldValues == null) {
+            throw new RuntimeException("Field has no options on the create screen: " + fieldId);
+        }
+        return fieldValues;
+    }
+
+    private void refreshFieldOptionsLoggingErrors() {
         try {
-            JsonObject response = client.executeGet("issue/createmeta", Map.of(
+            Map<String, List<String>> options = loadFieldOptions();
+            fieldOptionsLock.lock();
+            try {
+                fieldOptions = options;
+            }
+            finally {
+                fieldOptionsLock.unlock();
+            }
+        }
+        catch (Exception e) {
+            // Keep serving the previous options
+            log.error("Could not refresh field options: ", e);
+        }
+    }
+
+    /**
+     * The allowed values of every field on the create screen, from a single createmeta request.
+     */
+    private Map<String, List<String>> loadFieldOptions() {
+        JsonObject response;
+        try {
+            response = client.executeGet("issue/createmeta", Map.of(
                 "projectKeys", PROJECT_CODE,
                 "issuetypeIds", Long.toString(config.getJira().getIssueTypeId()),
                 "expand", "projects.issuetypes.fields"
             ));
-            JsonArray allowedValues = response
-                .getAsJsonArray("projects").get(0).getAsJsonObject()
-                .getAsJsonArray("issuetypes").get(0).getAsJsonObject()
-                .getAsJsonObject("fields")
-                .getAsJsonObject(fieldId)
-                .getAsJsonArray("allowedValues");
-            List<String> options = new LinkedList<>();
-            for (JsonElement element : allowedValues) {
-                options.add(element.getAsJsonObject().get("value").getAsString());
-            }
-            return options;
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
+        JsonObject fields = response
+            .getAsJsonArray("projects").get(0).getAsJsonObject()
+            .getAsJsonArray("issuetypes").get(0).getAsJsonObject()
+            .getAsJsonObject("fields");
+        Map<String, List<String>> options = new HashMap<String, List<String>>();
+        for (Map.Entry<String, JsonElement> field : fields.entrySet()) {
+            JsonElement allowedValues = field.getValue().getAsJsonObject().get("allowedValues");
+            if (allowedValues == null || !allowedValues.isJsonArray()) {
+                continue;
+            }
+            List<String> values = new ArrayList<String>();
+            for (JsonElement element : allowedValues.getAsJsonArray()) {
+                JsonElement value = element.getAsJsonObject().get("value");
+                if (value != null) {
+                    values.add(value.getAsString());
+                }
+            }
+            options.put(field.getKey(), Collections.unmodifiableList(values));
+        }
+        log.debug("Loaded options for " + options.size() + " fields.");
+        return options;
     }
 
 }
@@ -0,0 +1,71 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The last status of an issue that listeners were notified about, so a repeated webhook for the same
+ * transition doesn't notify them again, even across a restart.
+ *
+ * Listeners are notified in the background, so the status is claimed first and only confirmed once every
+ * listener has it or a dead letter for it.  A claim left unconfirmed, e.g. by a restart, is notified again.
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "jira_notified_status",
+    indexes = @Index(name = "idx_jira_notified_status_delivered_at", columnList = "delivered_at"))
+public class NotifiedStatus implements Persistable<String> {
+
+    @Id
+    private String issueKey;
+
+    @Column(nullable = false)
+    private Long statusId;
+
+    private Instant notifiedAt;
+
+    /**
+     * When every listener had the notification, or null while it's still being delivered.
+     */
+    private Instant deliveredAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean stored;
+
+    @Override
+    public String getId() {
+        return issueKey;
+    }
+
+    /**
+     * Saving always inserts, so when two nodes claim the same first transition only one of them succeeds.
+     */
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+
+}
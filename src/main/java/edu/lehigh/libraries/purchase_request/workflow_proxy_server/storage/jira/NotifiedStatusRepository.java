@@ -0,0 +1,50 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface NotifiedStatusRepository extends JpaRepository<NotifiedStatus, String> {
+
+    /**
+     * @return 1 if the issue's status changed since listeners were last notified, 0 if it hasn't or
+     *   the issue has no entry yet.
+     */
+    @Transactional
+    @Modifying
+    @Query("update NotifiedStatus n set n.statusId = :statusId, n.notifiedAt = :now, n.deliveredAt = null "
+        + "where n.issueKey = :issueKey and n.statusId <> :statusId")
+    int changeStatus(@Param("issueKey") String issueKey, @Param("statusId") Long statusId,
+        @Param("now") Instant now);
+
+    /**
+     * Claim a notification of this status again, if it was claimed before claimedBefore and never confirmed.
+     *
+     * @return 1 if claimed.
+     */
+    @Transactional
+    @Modifying
+    @Query("update NotifiedStatus n set n.notifiedAt = :now where n.issueKey = :issueKey "
+        + "and n.statusId = :statusId and n.deliveredAt is null and n.notifiedAt < :claimedBefore")
+    int reclaim(@Param("issueKey") String issueKey, @Param("statusId") Long statusId,
+        @Param("claimedBefore") Instant claimedBefore, @Param("now") Instant now);
+
+    /**
+     * Confirm every listener has the notification of this status, unless the issue has moved on since.
+     */
+    @Transactional
+    @Modifying
+    @Query("update NotifiedStatus n set n.deliveredAt = :now "
+        + "where n.issueKey = :issueKey and n.statusId = :statusId and n.deliveredAt is null")
+    int confirm(@Param("issueKey") String issueKey, @Param("statusId") Long statusId, @Param("now") Instant now);
+
+    @Query("select n.issueKey from NotifiedStatus n where n.deliveredAt is null and n.notifiedAt < :claimedBefore")
+    List<String> findUnconfirmedKeys(@Param("claimedBefore") Instant claimedBefore, Pageable pageable);
+
+}
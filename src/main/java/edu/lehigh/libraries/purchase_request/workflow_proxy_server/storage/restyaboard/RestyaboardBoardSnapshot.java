@@ -0,0 +1,237 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.restyaboard;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPatch;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Every card on the board, with the purchase request fields read from its activities.
+ *
+ * The first refresh loads each card's activities once.  After that, a refresh costs two calls however big
+ * the board is: the board itself, for added, moved and removed cards, and the board's activities since the
+ * last one seen, for changed fields.  If the activity feed can't be read completely, the next refresh
+ * starts over.
+ */
+@Slf4j
+class RestyaboardBoardSnapshot {
+
+    private final RestyaboardConnection connection;
+    private final long boardId;
+    private final Duration maxAge;
+    private final Function<JSONObject, PurchaseRequest> toStubPurchaseRequest;
+    private final BiConsumer<PurchaseRequest, JSONObject> applyActivity;
+    private final Consumer<PurchaseRequest> loadCardActivities;
+
+    // Refreshing calls Restyaboard, so use a lock rather than synchronized to avoid pinning a virtual thread.
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    /**
+     * By card ID, in board order.  Replaced whole, never modified, so readers need no lock.
+     */
+    private volatile Map<Long, Entry> cards = null;
+    private volatile Instant refreshedAt = Instant.MIN;
+    private volatile boolean stale = true;
+    private Long lastActivityId = null;
+
+    RestyaboardBoardSnapshot(RestyaboardConnection connection, long boardId, Duration maxAge,
+        Function<JSONObject, PurchaseRequest> toStubPurchaseRequest,
+        BiConsumer<PurchaseRequest, JSONObject> applyActivity,
+        Consumer<PurchaseRequest> loadCardActivities) {
+
+        this.connection = connection;
+        this.boardId = boardId;
+        this.maxAge = maxAge;
+        this.toStubPurchaseRequest = toStubPurchaseRequest;
+        this.applyActivity = applyActivity;
+        this.loadCardActivities = loadCardActivities;
+    }
+
+    /**
+     * Copies of every purchase request on the board, in board order, or null if the board can't be loaded.
+     */
+    List<PurchaseRequest> findAll() {
+        return find(null);
+    }
+
+    /**
+     * Copies of the purchase requests on cards created by the given Restyaboard user.
+     */
+    List<PurchaseRequest> findByUserId(long userId) {
+        return find(userId);
+    }
+
+    private List<PurchaseRequest> find(Long userId) {
+        Map<Long, Entry> current = current();
+        if (current == null) {
+            return null;
+        }
+        List<PurchaseRequest> purchaseRequests = new ArrayList<PurchaseRequest>();
+        for (Entry entry : current.values()) {
+            if (userId == null || userId.longValue() == entry.userId) {
+                purchaseRequests.add(PurchaseRequestPatch.copyOf(entry.purchaseRequest));
+            }
+        }
+        return purchaseRequests;
+    }
+
+    /**
+     * Refresh before the next read, whatever its age, e.g. because this server just changed the board.
+     */
+    void markStale() {
+        stale = true;
+    }
+
+    private Map<Long, Entry> current() {
+        if (stale || refreshedAt.plus(maxAge).isBefore(Instant.now())) {
+            refreshLock.lock();
+            try {
+                // Another reader may have refreshed while this one waited
+                if (stale || refreshedAt.plus(maxAge).isBefore(Instant.now())) {
+                    refresh();
+                }
+            }
+            catch (Exception e) {
+                log.error("Could not refresh board snapshot: ", e);
+                lastActivityId = null;
+            }
+            finally {
+                refreshLock.unlock();
+            }
+        }
+        return cards;
+    }
+
+    private void refresh() throws Exception {
+        // Cleared first, so a change made while refreshing marks it stale again
+        stale = false;
+        Instant started = Instant.now();
+
+        List<JSONObject> activities = null;
+        if (cards != null && lastActivityId != null) {
+            activities = loadActivitiesSince(lastActivityId);
+            if (activities == null) {
+                log.info("Too many board activities since the last refresh, reloading every card.");
+            }
+        }
+        Map<Long, Entry> previous;
+        long activityId;
+        if (activities == null) {
+            previous = Map.of();
+            activities = List.of();
+            // Taken before loading any card, so nothing that happens meanwhile is missed next time
+            activityId = loadLatestActivityId();
+        }
+        else {
+            previous = cards;
+            activityId = lastActivityId;
+        }
+
+        JSONObject board = connection.executeGet("/boards/" + boardId + ".json");
+        Map<Long, Entry> updated = new LinkedHashMap<Long, Entry>();
+        int loaded = 0;
+        for (Object listObject : board.getJSONArray("lists")) {
+            JSONArray listCards = ((JSONObject)listObject).optJSONArray("cards");
+            if (listCards == null) {
+                continue;
+            }
+            for (Object cardObject : listCards) {
+                JSONObject card = (JSONObject)cardObject;
+                long cardId = card.getLong("id");
+                PurchaseRequest purchaseRequest = toStubPurchaseRequest.apply(card);
+                Entry known = previous.get(cardId);
+                if (known != null) {
+                    // Card-level fields come from the board, everything else from earlier activities
+                    PurchaseRequest stub = purchaseRequest;
+                    purchaseRequest = PurchaseRequestPatch.copyOf(known.purchaseRequest);
+                    purchaseRequest.setTitle(stub.getTitle());
+                    purchaseRequest.setStatus(stub.getStatus());
+                    purchaseRequest.setCreationDate(stub.getCreationDate());
+                }
+                else {
+                    loadCardActivities.accept(purchaseRequest);
+                    loaded++;
+                }
+                updated.put(cardId, new Entry(purchaseRequest, card.getLong("user_id")));
+            }
+        }
+
+        for (JSONObject activity : activities) {
+            activityId = Math.max(activityId, activity.getLong("id"));
+            Entry entry = updated.get(activity.optLong("card_id", 0));
+            if (entry != null) {
+                // Already applied if the card was just loaded in full, but applying again changes nothing
+                applyActivity.accept(entry.purchaseRequest, activity);
+            }
+        }
+
+        cards = updated;
+        lastActivityId = activityId;
+        refreshedAt = started;
+        log.debug("Refreshed board snapshot: " + updated.size() + " cards, " + loaded + " loaded in full, "
+            + activities.size() + " new activities.");
+    }
+
+    private long loadLatestActivityId() throws Exception {
+        JSONObject result = connection.executeGet("/boards/" + boardId + "/activities.json");
+        long max = 0;
+        JSONArray data = result.optJSONArray("data");
+        if (data != null) {
+            for (Object activityObject : data) {
+                max = Math.max(max, ((JSONObject)activityObject).getLong("id"));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Board activities after the given one, oldest first, or null if they didn't fit in one response.
+     */
+    private List<JSONObject> loadActivitiesSince(long activityId) throws Exception {
+        JSONObject result = connection.executeGet("/boards/" + boardId + "/activities.json",
+            Map.of("last_activity_id", Long.toString(activityId)));
+        JSONObject metadata = result.optJSONObject("_metadata");
+        if (metadata != null && metadata.optInt("noOfPages", 1) > 1) {
+            return null;
+        }
+        List<JSONObject> activities = new ArrayList<JSONObject>();
+        JSONArray data = result.optJSONArray("data");
+        if (data != null) {
+            for (Object activityObject : data) {
+                JSONObject activity = (JSONObject)activityObject;
+                if (activity.getLong("id") > activityId) {
+                    activities.add(activity);
+                }
+            }
+        }
+        activities.sort(Comparator.comparingLong(activity -> activity.getLong("id")));
+        return activities;
+    }
+
+    private static class Entry {
+
+        private final PurchaseRequest purchaseRequest;
+        private final long userId;
+
+        private Entry(PurchaseRequest purchaseRequest, long userId) {
+            this.purchaseRequest = purchaseRequest;
+            this.userId = userId;
+        }
+
+    }
+
+}
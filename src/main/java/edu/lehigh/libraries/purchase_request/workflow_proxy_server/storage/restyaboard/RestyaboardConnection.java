@@ -3,21 +3,17 @@ package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.rest
 import java.net.URI;
 import java.util.Map;
 
-import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
-import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.RetryUtil;
 import lombok.extern.slf4j.Slf4j;
 
@@ -28,14 +24,14 @@ public class RestyaboardConnection {
     private static final String LOGIN_PATH = "/users/login.json";
 
     private final Config config;
+    private final SharedHttpClient client;
 
-    private CloseableHttpClient client;
     private String token;
 
-    public RestyaboardConnection(Config config) throws Exception {
+    public RestyaboardConnection(Config config, SharedHttpClient client) throws Exception {
         this.config = config;
+        this.client = client;
 
-        initConnection();
         try {
             RetryUtil.executeWithRetry("Restyaboard authentication", this::initToken);
         } catch (RuntimeException e) {
@@ -45,11 +41,6 @@ public class RestyaboardConnection {
         log.debug("Restyaboard connection ready");
     }
 
-    private void initConnection() {
-        client = HttpClientBuilder.create()
-            .build();                
-    }
-
     private void initToken() {
         try {
             String url = config.getRestyaboard().getBaseUrl() + API_PATH + LOGIN_PATH;
@@ -64,14 +55,13 @@ public class RestyaboardConnection {
                 .setHeader(HttpHeaders.CONTENT_TYPE, ContentType.APPLICATION_JSON.getMimeType())
                 .setEntity(new StringEntity(postData.toString(), "UTF-8"))
                 .build();
-            CloseableHttpResponse response = client.execute(post);
-            HttpEntity entity = response.getEntity();
-            String responseString = EntityUtils.toString(entity);
+            SharedHttpClient.StringResponse response = client.executeForString(post);
+            String responseString = response.getBody();
             JSONObject jsonObject = new JSONObject(responseString);
 
-            int responseCode = response.getStatusLine().getStatusCode();
+            int responseCode = response.getStatusCode();
             log.debug("got auth response from restyaboard with response code: " + responseCode);
-            if (responseCode > 399) {
+            if (response.isError()) {
                 throw new RuntimeException("Restyaboard auth failed: " + responseString);
             }
 
@@ -87,11 +77,9 @@ public class RestyaboardConnection {
             .addParameter("token", token)
             .setEntity(new StringEntity(body.toString(), "UTF-8"))
             .build();
-        CloseableHttpResponse response = client.execute(postRequest);
-        HttpEntity entity = response.getEntity();
-        String responseString = EntityUtils.toString(entity);
-        int responseCode = response.getStatusLine().getStatusCode();
-        if (responseCode > 399) {
+        SharedHttpClient.StringResponse response = client.executeForString(postRequest);
+        String responseString = response.getBody();
+        if (response.isError()) {
             throw new Exception(responseString);
         }
         return new JSONObject(responseString);
@@ -122,12 +110,9 @@ public class RestyaboardConnection {
         }
         HttpUriRequest getRequest = builder.build();
 
-        CloseableHttpResponse response;
-        response = client.execute(getRequest);
-        HttpEntity entity = response.getEntity();
-        String responseString = EntityUtils.toString(entity);
-        log.debug("Got response with code " + response.getStatusLine() + " and entity " + response.getEntity());
-        return responseString;
+        SharedHttpClient.StringResponse response = client.executeForString(getRequest);
+        log.debug("Got response with code " + response.getStatusCode());
+        return response.getBody();
     }
 
 }
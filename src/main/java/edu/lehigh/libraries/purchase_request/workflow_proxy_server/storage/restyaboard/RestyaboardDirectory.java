@@ -0,0 +1,196 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.restyaboard;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.ExpiringCache;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The board's lists and the Restyaboard users searched for, so each isn't resolved on every request.
+ *
+ * Lists are all kept, and reloaded by refresh().  Users are cached up to a maximum number, and refresh()
+ * reloads the ones still cached so a reporter searched for regularly never waits on Restyaboard.
+ *
+ * An unknown list reloads the lists at most once per tenth of the refresh interval, so cards left in a
+ * deleted list don't each cost a reload.  An unknown username is remembered for MISSING_USER_TTL.
+ */
+@Slf4j
+class RestyaboardDirectory {
+
+    private static final Duration MISSING_USER_TTL = Duration.ofMinutes(5);
+
+    private final RestyaboardConnection connection;
+    private final long boardId;
+    private final ExpiringCache<String, Long> userIds;
+    private final ExpiringCache<String, Boolean> missingUsers;
+    private final Duration minListReloadInterval;
+    private final Clock clock;
+
+    // Loading queries Restyaboard, so use a lock rather than synchronized to avoid pinning a virtual thread.
+    private final ReentrantLock listReloadLock = new ReentrantLock();
+    private volatile Instant listsLoadedAt = Instant.MIN;
+
+    /**
+     * Replaced whole, never modified, so readers need no lock.
+     */
+    private volatile Map<Long, String> listNames = Map.of();
+    private volatile Map<String, Long> listIds = Map.of();
+
+    RestyaboardDirectory(RestyaboardConnection connection, long boardId, Config.Restyaboard config) {
+        this(connection, boardId, config, Clock.systemUTC());
+    }
+
+    RestyaboardDirectory(RestyaboardConnection connection, long boardId, Config.Restyaboard config, Clock clock) {
+        this.connection = connection;
+        this.boardId = boardId;
+        this.userIds = new ExpiringCache<String, Long>(config.getUserCacheSize(), config.getUserCacheTtl());
+        this.missingUsers = new ExpiringCache<String, Boolean>(config.getUserCacheSize(), MISSING_USER_TTL);
+        this.minListReloadInterval = config.getDirectoryRefreshInterval().dividedBy(10);
+        this.clock = clock;
+    }
+
+    /**
+     * @return The user's ID, or null if there's no such user or they can't be looked up right now.
+     */
+    Long getUserId(String username) {
+        Long userId = userIds.get(username);
+        if (userId == null) {
+            if (missingUsers.get(username) != null) {
+                return null;
+            }
+            try {
+                userId = loadUserId(username);
+            }
+            catch (Exception e) {
+                log.error("Could not find user: ", e);
+                return null;
+            }
+            if (userId == null) {
+                missingUsers.put(username, Boolean.TRUE);
+            }
+            else {
+                userIds.put(username, userId);
+            }
+        }
+        return userId;
+    }
+
+    /**
+     * @return The list's name, or null if the board has no such list even after reloading them.
+     */
+    String getListName(long listId) {
+        String name = listNames.get(listId);
+        if (name == null && reloadListsIfStale()) {
+            name = listNames.get(listId);
+        }
+        return name;
+    }
+
+    /**
+     * @return The ID of the list with the given name, or null if the board has none even after reloading them.
+     */
+    Long getListId(String name) {
+        Long listId = listIds.get(name);
+        if (listId == null && reloadListsIfStale()) {
+            listId = listIds.get(name);
+        }
+        return listId;
+    }
+
+    /**
+     * Reload the lists for a lookup that missed, unless they were loaded recently.  A lookup that misses
+     * while another is reloading waits for that reload instead of starting its own.
+     *
+     * @return false if the lists are as they were.
+     */
+    private boolean reloadListsIfStale() {
+        Instant loadedAt = listsLoadedAt;
+        if (clock.instant().isBefore(loadedAt.plus(minListReloadInterval))) {
+            return false;
+        }
+        listReloadLock.lock();
+        try {
+            if (listsLoadedAt.equals(loadedAt)) {
+                refreshListsLoggingErrors();
+            }
+            return true;
+        }
+        finally {
+            listReloadLock.unlock();
+        }
+    }
+
+    void refreshLists() {
+        // Counts failed loads too, so an unreachable Restyaboard isn't asked again for every lookup
+        listsLoadedAt = clock.instant();
+        JSONObject result;
+        try {
+            result = connection.executeGet("/boards/" + boardId + "/lists.json");
+        }
+        catch (Exception e) {
+            throw new RuntimeException("Could not load lists", e);
+        }
+        Map<Long, String> names = new HashMap<Long, String>();
+        Map<String, Long> ids = new HashMap<String, Long>();
+        result.getJSONArray("data").forEach(item -> {
+            JSONObject list = (JSONObject)item;
+            names.put(list.getLong("id"), list.getString("name"));
+            ids.put(list.getString("name"), list.getLong("id"));
+        });
+        listNames = names;
+        listIds = ids;
+        log.debug("Loaded " + names.size() + " Restyaboard lists.");
+    }
+
+    /**
+     * Reload the lists and every cached user.
+     */
+    void refresh() {
+        refreshListsLoggingErrors();
+        for (String username : userIds.keys()) {
+            try {
+                Long userId = loadUserId(username);
+                if (userId == null) {
+                    userIds.invalidate(username);
+                }
+                else {
+                    userIds.put(username, userId);
+                }
+            }
+            catch (Exception e) {
+                // Keep the cached ID until it expires
+                log.warn("Could not refresh user " + username + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void refreshListsLoggingErrors() {
+        try {
+            refreshLists();
+        }
+        catch (Exception e) {
+            log.error("Could not refresh Restyaboard lists: ", e);
+        }
+    }
+
+    /**
+     * @return The user's ID, or null if there's no such user.
+     */
+    private Long loadUserId(String username) throws Exception {
+        JSONArray result = connection.executeGetForArray("/users/search.json", Map.of("q", username));
+        if (result.length() == 0) {
+            return null;
+        }
+        return result.getJSONObject(0).getLong("id");
+    }
+
+}
@@ -2,23 +2,32 @@ package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.rest
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.stereotype.Service;
 
 import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
 import edu.lehigh.libraries.purchase_request.model.SearchQuery;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.SharedHttpClient;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentType;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners.ListenerDispatcher;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.AbstractWorkflowService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.CachingWorkflowService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPage;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.PurchaseRequestPatch;
 import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.RetryUtil;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
+@Qualifier(CachingWorkflowService.BACKEND)
 @ConditionalOnProperty(name="workflow.storage", havingValue="restyaboard")
 @ConditionalOnWebApplication
 @Slf4j
@@ -41,17 +50,24 @@ public class RestyaboardWorkflowService extends AbstractWorkflowService {
 
     private Config config;
     private RestyaboardConnection connection;
+    private RestyaboardBoardSnapshot boardSnapshot;
+    private RestyaboardDirectory directory;
+    private TaskScheduler scheduler;
 
     private Long BOARD_ID;
     private Long NEW_REQUEST_LIST_ID;
 
-    private String NEW_REQUEST_LIST_NAME;
+    public RestyaboardWorkflowService(Config config, SharedHttpClient httpClient, 
+        ListenerDispatcher listenerDispatcher, TaskScheduler scheduler) throws Exception {
 
-    public RestyaboardWorkflowService(Config config) throws Exception {
-        super();
+        super(listenerDispatcher);
         this.config = config;
-        this.connection = new RestyaboardConnection(config);
+        this.scheduler = scheduler;
+        this.connection = new RestyaboardConnection(config, httpClient);
         initMetadata();
+        this.boardSnapshot = new RestyaboardBoardSnapshot(connection, BOARD_ID,
+            config.getRestyaboard().getSnapshotMaxAge(), this::toStubPurchaseRequest, this::addActivityData,
+            this::loadActivitiesData);
         log.debug("RestyaboardWorkflowService ready.");
     }
 
@@ -59,49 +75,46 @@ public class RestyaboardWorkflowService extends AbstractWorkflowService {
         BOARD_ID = config.getRestyaboard().getBoardId();
         NEW_REQUEST_LIST_ID = config.getRestyaboard().getNewRequestListId();
 
-        JSONArray listsResponse = RetryUtil.executeWithRetry("Restyaboard board lists", this::getLists);
-        listsResponse.forEach(item -> {
-            JSONObject list = (JSONObject)item;
-            if (NEW_REQUEST_LIST_ID.longValue() == list.getLong("id")) {
-                NEW_REQUEST_LIST_NAME = list.getString("name");
-            }
+        directory = new RestyaboardDirectory(connection, BOARD_ID, config.getRestyaboard());
+        RetryUtil.executeWithRetry("Restyaboard board lists", () -> {
+            directory.refreshLists();
+            return null;
         });
+        if (directory.getListName(NEW_REQUEST_LIST_ID) == null) {
+            log.error("New request list " + NEW_REQUEST_LIST_ID + " not found on board " + BOARD_ID);
+        }
     }
 
-    private JSONArray getLists() {
-        String url = "/boards/" + BOARD_ID + "/lists.json";
-        try {
-            JSONObject result = connection.executeGet(url);
-            return result.getJSONArray("data");
-        }
-        catch (Exception e) {
-            throw new RuntimeException("Could not load lists", e);
-        }
+    /**
+     * Keep list and user lookups current in the background, rather than when a request needs them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void startDirectoryRefresh() {
+        scheduler.scheduleWithFixedDelay(directory::refresh, config.getRestyaboard().getDirectoryRefreshInterval());
     }
 
     @Override
     public List<PurchaseRequest> findAll() {
         log.debug("findAll()");
+        return boardSnapshot.findAll();
+    }
 
-        JSONObject board = loadBoard();
-        if (board == null) {
-            return null;
-        }
-        JSONArray lists = board.getJSONArray("lists");
-        List<PurchaseRequest> purchaseRequests = new ArrayList<PurchaseRequest>();
-        lists.forEach(listObject -> {
-            JSONObject list = (JSONObject)listObject;
-            JSONArray cards = list.optJSONArray("cards");
-            if (cards != null) {
-                cards.forEach(cardObject -> {
-                    JSONObject card = (JSONObject)cardObject;
-                    PurchaseRequest purchaseRequest = toStubPurchaseRequest(card);
-                    loadActivitiesData(purchaseRequest);
-                    purchaseRequests.add(purchaseRequest);
-                });
-            }
-        });
-        return purchaseRequests;
+    /**
+     * Pages through the board's cards.  The page token is the offset of the next card.
+     */
+    @Override
+    public PurchaseRequestPage findPage(String pageToken, int pageSize, boolean includeComments) {
+        log.debug("findPage()");
+
+        List<PurchaseRequest> purchaseRequests = boardSnapshot.findAll();
+        if (purchaseRequests == null) {
+            return new PurchaseRequestPage(List.of(), null);
+        }
+        int start = pageToken == null ? 0 : Integer.parseInt(pageToken);
+        int end = Math.min(start + pageSize, purchaseRequests.size());
+        String nextPageToken = end < purchaseRequests.size() ? Integer.toString(end) : null;
+        return new PurchaseRequestPage(
+            new ArrayList<PurchaseRequest>(purchaseRequests.subList(Math.min(start, end), end)), nextPageToken);
     }
 
     @Override
@@ -144,6 +157,7 @@ public class RestyaboardWorkflowService extends AbstractWorkflowService {
         }
 
         String id = result.getString("id");
+        boardSnapshot.markStale();
         PurchaseRequest savedRequest = findByKey(id);
 
         enrichMapCommentIfPresent(savedRequest, CONTRIBUTOR_KEY, purchaseRequest.getContributor());
@@ -167,100 +181,59 @@ public class RestyaboardWorkflowService extends AbstractWorkflowService {
     @Override
     public List<PurchaseRequest> search(SearchQuery query) {
         log.debug("search()");
-        Long userId = getUserId(query.getReporterName());
+        Long userId = directory.getUserId(query.getReporterName());
         if (userId == null) {
             log.warn("No user found: " + query.getReporterName());
             return null;
         }
 
-        JSONObject board = loadBoard();
-        if (board == null) {
-            return null;
-        }
-        JSONArray lists = board.getJSONArray("lists");
-        List<PurchaseRequest> purchaseRequests = new ArrayList<PurchaseRequest>();
-        lists.forEach(listObject -> {
-            JSONObject list = (JSONObject)listObject;
-            JSONArray cards = list.optJSONArray("cards");
-            if (cards != null) {
-                cards.forEach(cardObject -> {
-                    JSONObject card = (JSONObject)cardObject;
-                    if (card.getLong("user_id") == userId) {
-                        PurchaseRequest purchaseRequest = toStubPurchaseRequest(card);
-                        loadActivitiesData(purchaseRequest);
-                        purchaseRequests.add(purchaseRequest);
-                    }
-                });
-            }
-        });
-        return purchaseRequests;
-    }
-
-    private JSONObject loadBoard() {
-        String url = "/boards/" + BOARD_ID + ".json";
-        JSONObject result;
-        try {
-            result = connection.executeGet(url);
-        }
-        catch (Exception e) {
-            log.error("Could not find board: ", e);
-            return null;
-        }
-        return result;
-    }
-
-    private Long getUserId(String username) {
-        String url = "/users/search.json";
-        JSONArray result;
-        try {
-            result = connection.executeGetForArray(url, Map.of("q", username));
-        }
-        catch (Exception e) {
-            log.error("Could not find user: ", e);
-            return null;
-        }
-        JSONObject user = result.getJSONObject(0);
-        return user.getLong("id");
+        return boardSnapshot.findByUserId(userId);
     }
 
     @Override
     public void enrich(PurchaseRequest purchaseRequest, EnrichmentType type, Object data) {
-        if (EnrichmentType.LOCAL_HOLDINGS == type) {
+        if (EnrichmentType.LOCAL_HOLDINGS == type || EnrichmentType.PRICING == type) {
+            // Free-text comments aren't read back into a PurchaseRequest, so there's nothing to patch.
             enrichComment(purchaseRequest, (String)data);
+            return;
         }
-        else if (EnrichmentType.OCLC_NUMBER == type) {
-            enrichMapCommentIfPresent(purchaseRequest, OCLC_NUMBER_KEY, (String)data);
+
+        String key;
+        if (EnrichmentType.OCLC_NUMBER == type) {
+            key = OCLC_NUMBER_KEY;
         }
         else if (EnrichmentType.CALL_NUMBER == type) {
-            enrichMapCommentIfPresent(purchaseRequest, CALL_NUMBER_KEY, (String)data);
-        }
-        else if (EnrichmentType.PRICING == type) {
-            enrichComment(purchaseRequest, (String)data);
+            key = CALL_NUMBER_KEY;
         }
         else if (EnrichmentType.REQUESTER_INFO == type) {
-            enrichMapCommentIfPresent(purchaseRequest, REQUESTER_INFO_KEY, (String)data);
+            key = REQUESTER_INFO_KEY;
         }
         // TODO else if (EnrichmentType.LIBRARIANS == type) {
         //     enrichAssignee(purchaseRequest, data);
         // }
         else if (EnrichmentType.FUND_CODE == type) {
-            enrichMapCommentIfPresent(purchaseRequest, FUND_CODE_KEY, (String)data);
+            key = FUND_CODE_KEY;
         }
         else if (EnrichmentType.OBJECT_CODE == type) {
-            enrichMapCommentIfPresent(purchaseRequest, OBJECT_CODE_KEY, (String)data);
+            key = OBJECT_CODE_KEY;
         }
         else {
             throw new IllegalArgumentException("Unknown enrichment type " + type);
         }
+
+        if (enrichMapCommentIfPresent(purchaseRequest, key, (String)data)) {
+            PurchaseRequestPatch.apply(purchaseRequest, type, data);
+        }
     }
 
-    private void enrichMapCommentIfPresent(PurchaseRequest purchaseRequest, String key, String data) {
+    private boolean enrichMapCommentIfPresent(PurchaseRequest purchaseRequest, String key, String data) {
         if (data != null) {
-            enrichComment(purchaseRequest, key + COMMENT_DELIMITER + data);
+            return enrichComment(purchaseRequest, key + COMMENT_DELIMITER + data);
         }
+        return false;
     }
 
-    private void enrichComment(PurchaseRequest purchaseRequest, String comment) {
+    private boolean enrichComment(PurchaseRequest purchaseRequest, String comment) {
         long listId = statusToListId(purchaseRequest.getStatus());
         String url = "/boards/" + BOARD_ID 
             + "/lists/" + listId 
@@ -274,8 +247,10 @@ public class RestyaboardWorkflowService extends AbstractWorkflowService {
         }
         catch (Exception e) {
             log.error("Could not save comment: ", e);
-            return;
+            return false;
         }
+        boardSnapshot.markStale();
+        return true;
     }
     
     private JSONObject toCard(PurchaseRequest purchaseRequest) {
@@ -318,72 +293,74 @@ public class RestyaboardWorkflowService extends AbstractWorkflowService {
 
     private void addActivitiesData(PurchaseRequest purchaseRequest, JSONObject activitiesResult) {
         JSONArray data = activitiesResult.getJSONArray("data");
-        data.forEach(eventObject -> {
-            JSONObject event = (JSONObject)eventObject;
-            String type = event.getString("type");
-            if ("add_comment".equals(type)) {
-                String comment = event.getString("comment");
-                String[] pair = comment.split(COMMENT_DELIMITER, 2);
-                if (pair.length == 2) {
-                    String key = pair[0];
-                    String value = pair[1];
-                    if (CONTRIBUTOR_KEY.equals(key)) {
-                        purchaseRequest.setContributor(value);
-                    }
-                    else if (ISBN_KEY.equals(key)) {
-                        purchaseRequest.setIsbn(value);
-                    }
-                    else if (OCLC_NUMBER_KEY.equals(key)) {
-                        purchaseRequest.setOclcNumber(value);
-                    }
-                    else if (CALL_NUMBER_KEY.equals(key)) {
-                        purchaseRequest.setCallNumber(value);
-                    }
-                    else if (FORMAT_KEY.equals(key)) {
-                        purchaseRequest.setFormat(value);
-                    }
-                    else if (SPEED_KEY.equals(key)) {
-                        purchaseRequest.setSpeed(value);
-                    }
-                    else if (DESTINATION_KEY.equals(key)) {
-                        purchaseRequest.setDestination(value);
-                    }
-                    else if (CLIENT_NAME_KEY.equals(key)) {
-                        purchaseRequest.setClientName(value);
-                    }
-                    else if (REQUESTER_USERNAME_KEY.equals(key)) {
-                        purchaseRequest.setRequesterUsername(value);
-                    }
-                    else if (REQUESTER_INFO_KEY.equals(key)) {
-                        purchaseRequest.setRequesterInfo(value);
-                    }
-                    else if (FUND_CODE_KEY.equals(key)) {
-                        purchaseRequest.setFundCode(value);
-                    }
-                    else if (OBJECT_CODE_KEY.equals(key)) {
-                        purchaseRequest.setObjectCode(value);
-                    }
+        data.forEach(eventObject -> addActivityData(purchaseRequest, (JSONObject)eventObject));
+    }
+
+    private void addActivityData(PurchaseRequest purchaseRequest, JSONObject event) {
+        String type = event.getString("type");
+        if ("add_comment".equals(type)) {
+            String comment = event.getString("comment");
+            String[] pair = comment.split(COMMENT_DELIMITER, 2);
+            if (pair.length == 2) {
+                String key = pair[0];
+                String value = pair[1];
+                if (CONTRIBUTOR_KEY.equals(key)) {
+                    purchaseRequest.setContributor(value);
+                }
+                else if (ISBN_KEY.equals(key)) {
+                    purchaseRequest.setIsbn(value);
+                }
+                else if (OCLC_NUMBER_KEY.equals(key)) {
+                    purchaseRequest.setOclcNumber(value);
+                }
+                else if (CALL_NUMBER_KEY.equals(key)) {
+                    purchaseRequest.setCallNumber(value);
+                }
+                else if (FORMAT_KEY.equals(key)) {
+                    purchaseRequest.setFormat(value);
+                }
+                else if (SPEED_KEY.equals(key)) {
+                    purchaseRequest.setSpeed(value);
+                }
+                else if (DESTINATION_KEY.equals(key)) {
+                    purchaseRequest.setDestination(value);
+                }
+                else if (CLIENT_NAME_KEY.equals(key)) {
+                    purchaseRequest.setClientName(value);
+                }
+                else if (REQUESTER_USERNAME_KEY.equals(key)) {
+                    purchaseRequest.setRequesterUsername(value);
+                }
+                else if (REQUESTER_INFO_KEY.equals(key)) {
+                    purchaseRequest.setRequesterInfo(value);
+                }
+                else if (FUND_CODE_KEY.equals(key)) {
+                    purchaseRequest.setFundCode(value);
+                }
+                else if (OBJECT_CODE_KEY.equals(key)) {
+                    purchaseRequest.setObjectCode(value);
                 }
             }
-        });
+        }
     }
 
+    /**
+     * A purchase request's status is the name of its card's list.
+     */
     private String listIdToStatus(long listId) {
-        if (NEW_REQUEST_LIST_ID.longValue() == listId) {
-            return NEW_REQUEST_LIST_NAME;
-        }
-        else {
+        String status = directory.getListName(listId);
+        if (status == null) {
             throw new IllegalArgumentException("Unknown list ID: " + listId);
         }
+        return status;
     }
 
     private long statusToListId(String status) {
-        if (NEW_REQUEST_LIST_NAME.equals(status)) {
-            return NEW_REQUEST_LIST_ID.longValue();
-        }
-        else {
+        Long listId = status == null ? null : directory.getListId(status);
+        if (listId == null) {
             throw new IllegalArgumentException("Unknown status: " + status);
         }
+        return listId.longValue();
     }
 
     public PurchaseRequest addComment(PurchaseRequest purchaseRequest, PurchaseRequest.Comment comment) {
@@ -0,0 +1,149 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe circuit breaker for one remote dependency.
+ *
+ * CLOSED lets every call through and counts consecutive failures.  After failureThreshold of them it
+ * goes OPEN and refuses calls for openDuration, then HALF_OPEN lets halfOpenCalls trial calls through:
+ * if they all succeed it closes again, and any failure opens it for another openDuration.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN;
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final int halfOpenCalls;
+    private final Clock clock;
+
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong opened = new AtomicLong();
+
+    // guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private Instant openUntil;
+    private int trialsStarted = 0;
+    private int trialsSucceeded = 0;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration, int halfOpenCalls) {
+        this(name, failureThreshold, openDuration, halfOpenCalls, Clock.systemUTC());
+    }
+
+    CircuitBreaker(String name, int failureThreshold, Duration openDuration, int halfOpenCalls, Clock clock) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    /**
+     * @throws OpenException if the breaker is refusing calls.
+     */
+    public void acquire() {
+        if (!tryAcquire()) {
+            rejected.incrementAndGet();
+            throw new OpenException(name);
+        }
+    }
+
+    /**
+     * @return false if the breaker is refusing calls.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openUntil)) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        if (state == State.HALF_OPEN) {
+            trialsSucceeded++;
+            if (trialsSucceeded < halfOpenCalls) {
+                return;
+            }
+            state = State.CLOSED;
+        }
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void recordFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && !clock.instant().isBefore(openUntil)) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getOpened() {
+        return opened.get();
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = clock.instant().plus(openDuration);
+        consecutiveFailures = 0;
+        opened.incrementAndGet();
+    }
+
+    public static class OpenException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String dependency;
+
+        public OpenException(String dependency) {
+            super("Circuit breaker for " + dependency + " is open.");
+            this.dependency = dependency;
+        }
+
+        public String getDependency() {
+            return dependency;
+        }
+
+    }
+
+}
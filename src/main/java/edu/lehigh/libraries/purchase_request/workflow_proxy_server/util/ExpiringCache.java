@@ -0,0 +1,138 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small thread-safe in-memory cache with a maximum size and a time-to-live per entry.
+ * When full, the least recently used entry is evicted.  Hit and miss counts are kept for metrics.
+ */
+public class ExpiringCache<K, V> {
+
+    private final int maxSize;
+    private final Duration ttl;
+    private final Clock clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // guarded by this
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private long generation = 0;
+
+    public ExpiringCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Clock.systemUTC());
+    }
+
+    ExpiringCache(int maxSize, Duration ttl, Clock clock) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.clock = clock;
+
+        // Access order, so the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > ExpiringCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return The cached value, or null if absent or expired.
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expires.isAfter(clock.instant())) {
+            hits.incrementAndGet();
+            return entry.value;
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public synchronized void put(K key, V value) {
+        put(key, value, ttl);
+    }
+
+    /**
+     * Put a value that expires sooner or later than the cache's time-to-live.
+     */
+    public synchronized void put(K key, V value, Duration ttl) {
+        if (maxSize <= 0 || value == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        entries.put(key, new Entry<V>(value, clock.instant().plus(ttl)));
+    }
+
+    /**
+     * Put a value loaded after getGeneration() returned the given generation, unless something
+     * has been invalidated since.  This keeps a slow load from caching data older than an invalidation.
+     */
+    public synchronized void put(K key, V value, long loadedAtGeneration) {
+        if (loadedAtGeneration == generation) {
+            put(key, value);
+        }
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+        generation++;
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+        generation++;
+    }
+
+    /**
+     * Keys of the entries that haven't expired, least recently used first, e.g. to reload them ahead of expiry.
+     * Doesn't count as using them.
+     */
+    public synchronized List<K> keys() {
+        Instant now = clock.instant();
+        List<K> keys = new ArrayList<K>(entries.size());
+        entries.forEach((key, entry) -> {
+            if (entry.expires.isAfter(now)) {
+                keys.add(key);
+            }
+        });
+        return keys;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final Instant expires;
+
+        private Entry(V value, Instant expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+    }
+
+}
@@ -1,5 +1,6 @@
 package edu.lehigh.libraries.purchase_request.workflow_proxy_server.util;
 
+import java.util.Collections;
 import java.util.function.Supplier;
 
 import org.slf4j.Logger;
@@ -14,6 +15,9 @@ import org.springframework.retry.support.RetryTemplate;
 /**
  * Utility class for executing operations with retry logic and exponential backoff.
  * Uses Spring Retry's RetryTemplate for idiomatic Spring retry handling.
+ *
+ * An open circuit breaker ends the retries at once: its CircuitBreaker.OpenException, even wrapped
+ * in another exception, is never retried and is rethrown as-is.
  */
 public class RetryUtil {
 
@@ -38,8 +42,8 @@ public class RetryUtil {
         backOffPolicy.setMaxInterval(maxInterval);
         retryTemplate.setBackOffPolicy(backOffPolicy);
 
-        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy();
-        retryPolicy.setMaxAttempts(maxAttempts);
+        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(maxAttempts,
+            Collections.singletonMap(CircuitBreaker.OpenException.class, false), true, true);
         retryTemplate.setRetryPolicy(retryPolicy);
 
         return retryTemplate;
@@ -102,7 +106,10 @@ public class RetryUtil {
             public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
                                                           Throwable throwable) {
                 int attempt = context.getRetryCount();
-                if (attempt < maxAttempts - 1) {
+                CircuitBreaker.OpenException open = findOpenBreaker(throwable);
+                if (open != null) {
+                    log.warn("[Retry] {} not retried: {}", opName, open.getMessage());
+                } else if (attempt < maxAttempts - 1) {
                     long delay = Math.min(initialIntervalMs * (1L << attempt), maxIntervalMs);
                     log.warn("[Retry] {} failed (attempt {}/{}), retrying in {}ms. Error: {} - {}",
                             opName, attempt + 1, maxAttempts, delay,
@@ -117,10 +124,23 @@ public class RetryUtil {
         try {
             return retryTemplate.execute(context -> operation.get());
         } catch (Exception e) {
+            CircuitBreaker.OpenException open = findOpenBreaker(e);
+            if (open != null) {
+                throw open;
+            }
             throw new RuntimeException("Operation failed after retries: " + opName, e);
         }
     }
 
+    private static CircuitBreaker.OpenException findOpenBreaker(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CircuitBreaker.OpenException) {
+                return (CircuitBreaker.OpenException) cause;
+            }
+        }
+        return null;
+    }
+
     /**
      * Execute a void operation with default retry settings.
      */
@@ -0,0 +1,162 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.util;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A thread-safe token bucket whose rate adapts to what the far end says.
+ *
+ * Callers reserve a permit and are told how long to wait for it rather than being refused, so queued
+ * calls go out in the order they asked, spaced at the current rate.  A throttled response halves the
+ * rate and pauses the bucket; each success then raises the rate again, up to the configured maximum.
+ */
+public class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /** Never slow down below this fraction of the configured rate. */
+    private static final double MIN_RATE_FRACTION = 1.0 / 16;
+
+    /** Each success recovers this fraction of the configured rate. */
+    private static final double RECOVERY_FRACTION = 1.0 / 20;
+
+    private final double maxRate;
+    private final int burst;
+    private final LongSupplier nanoTime;
+
+    // guarded by this
+    private double rate;
+    private double tokens;
+    private long refilledAt;
+    private boolean windowLimited = false;
+    private long windowRemaining;
+    private long windowResetsAt;
+
+    public TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoTime) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate must be positive and burst at least 1.");
+        }
+        this.maxRate = permitsPerSecond;
+        this.burst = burst;
+        this.nanoTime = nanoTime;
+        this.rate = permitsPerSecond;
+        this.tokens = burst;
+        this.refilledAt = nanoTime.getAsLong();
+    }
+
+    /**
+     * Take a permit, going into debt if none is available.
+     *
+     * @return How long the caller must wait before using the permit; zero if it can go now.
+     */
+    public synchronized Duration reserve() {
+        long now = nanoTime.getAsLong();
+        refill(now);
+        if (windowLimited) {
+            if (windowRemaining <= 0) {
+                // The far end's window is used up, so this permit comes out of the next one
+                windowLimited = false;
+                pause(Duration.ofNanos(windowResetsAt - now));
+            }
+            else {
+                windowRemaining--;
+            }
+        }
+        tokens -= 1;
+        long wait = Math.max(0, refilledAt - now);
+        if (tokens < 0) {
+            wait += (long)(-tokens / rate * NANOS_PER_SECOND);
+        }
+        return Duration.ofNanos(wait);
+    }
+
+    /**
+     * Give back a permit that was reserved but not used.
+     */
+    public synchronized void release() {
+        tokens = Math.min(burst, tokens + 1);
+        if (windowLimited) {
+            windowRemaining++;
+        }
+    }
+
+    /**
+     * The far end accepted a call: recover some of the rate lost to earlier throttling.
+     */
+    public synchronized void succeeded() {
+        rate = Math.min(maxRate, rate + maxRate * RECOVERY_FRACTION);
+    }
+
+    /**
+     * The far end throttled a call: halve the rate and hand out nothing more until retryAfter has passed.
+     */
+    public synchronized void throttled(Duration retryAfter) {
+        rate = Math.max(maxRate * MIN_RATE_FRACTION, rate / 2);
+        pause(retryAfter);
+    }
+
+    /**
+     * The far end reported how many calls are left in its current window, and when the window resets.
+     * Until the reset, refills stop at that count less the permits handed out since, and once it is used up
+     * the next permit waits for the reset.
+     */
+    public synchronized void limitRemaining(long remaining, Duration resetIn) {
+        if (remaining <= 0) {
+            windowLimited = false;
+            pause(resetIn);
+            return;
+        }
+        windowLimited = true;
+        windowRemaining = remaining;
+        windowResetsAt = nanoTime.getAsLong() + resetIn.toNanos();
+        tokens = Math.min(tokens, remaining);
+    }
+
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * @return Permits available right now; negative when callers are already queued.
+     */
+    public synchronized double getAvailable() {
+        long now = nanoTime.getAsLong();
+        refill(now);
+        return now < refilledAt ? Math.min(tokens, 0) : tokens;
+    }
+
+    private void pause(Duration duration) {
+        long until = nanoTime.getAsLong() + duration.toNanos();
+        if (until > refilledAt) {
+            refilledAt = until;
+        }
+        tokens = Math.min(tokens, 0);
+    }
+
+    private void refill(long now) {
+        if (windowLimited && now - windowResetsAt >= 0) {
+            windowLimited = false;
+        }
+        // While paused, refilledAt is in the future and nothing accrues until it passes
+        if (now > refilledAt) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * rate / NANOS_PER_SECOND);
+            refilledAt = now;
+        }
+        if (windowLimited) {
+            tokens = Math.min(tokens, windowRemaining);
+        }
+    }
+
+}
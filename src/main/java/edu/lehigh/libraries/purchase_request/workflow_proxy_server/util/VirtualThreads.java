@@ -0,0 +1,53 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to Java 21 virtual threads from code that still compiles for Java 11.
+ *
+ * The APIs are looked up reflectively, so the same build runs on either JDK.  Use isAvailable() first.
+ */
+public class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @return An executor starting a new virtual thread per task, named with the prefix and a counter.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+        if (!isAvailable()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later.");
+        }
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService)Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                .invoke(null, factory);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create a virtual thread executor", e);
+        }
+    }
+
+    private static Method findMethod(Class<?> clazz, String name) {
+        try {
+            return clazz.getMethod(name);
+        }
+        catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+}
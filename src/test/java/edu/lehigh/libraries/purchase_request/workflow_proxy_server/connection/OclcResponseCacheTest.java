@@ -0,0 +1,106 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OclcResponseCacheTest {
+
+    private static final String BIBS = OclcConnection.WORLDCAT_BASE_URL + "/bibs?q=(bn:9780306406157)";
+    private static final String HOLDINGS = OclcConnection.WORLDCAT_BASE_URL
+        + "/bibs-holdings?holdingsAllEditions=true&isbn=9780306406157&heldByGroup=EAST";
+
+    private final OclcCachedResponseRepository repository = mock(OclcCachedResponseRepository.class);
+    private OclcResponseCache cache;
+
+    @BeforeEach
+    void createCache() {
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+        Config config = new Config();
+        config.setOclc(new Config.Oclc());
+        cache = new OclcResponseCache(config, repository, mock(TaskScheduler.class));
+    }
+
+    private OclcCachedResponse stored(String url, Instant expiresAt) {
+        OclcCachedResponse stored = new OclcCachedResponse();
+        String key = OclcResponseCache.key("wcapi", url);
+        stored.setId(OclcResponseCache.id(key));
+        stored.setKey(key);
+        stored.setBody("{\"numberOfRecords\":1}");
+        stored.setFetchedAt(Instant.now());
+        stored.setExpiresAt(expiresAt);
+        return stored;
+    }
+
+    @Test
+    void key_sortsQueryParameters() {
+        assertEquals(OclcResponseCache.key("wcapi", "https://example.com/bibs?b=2&a=1"),
+            OclcResponseCache.key("wcapi", "https://example.com/bibs?a=1&b=2"));
+    }
+
+    @Test
+    void get_fallsBackToTheDatabase() {
+        OclcCachedResponse stored = stored(BIBS, Instant.now().plus(Duration.ofHours(1)));
+        when(repository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        assertNotNull(cache.get("wcapi", BIBS));
+        assertNotNull(cache.get("wcapi", BIBS));
+        assertEquals(1, cache.snapshot().getStoredHits());
+        assertEquals(1, cache.snapshot().getHits());
+        assertEquals(0, cache.snapshot().getMisses());
+    }
+
+    @Test
+    void get_ignoresExpiredRows() {
+        OclcCachedResponse stored = stored(BIBS, Instant.now().minus(Duration.ofMinutes(1)));
+        when(repository.findById(stored.getId())).thenReturn(Optional.of(stored));
+
+        assertNull(cache.get("wcapi", BIBS));
+        assertEquals(1, cache.snapshot().getMisses());
+    }
+
+    @Test
+    void get_treatsDatabaseErrorsAsMisses() {
+        when(repository.findById(anyString())).thenThrow(new RuntimeException("Connection refused"));
+
+        assertNull(cache.get("wcapi", BIBS));
+        assertEquals(1, cache.snapshot().getMisses());
+    }
+
+    @Test
+    void put_givesHoldingsTheShorterTtl() {
+        ArgumentCaptor<OclcCachedResponse> saved = ArgumentCaptor.forClass(OclcCachedResponse.class);
+        cache.put("wcapi", HOLDINGS, "{}");
+        cache.put("wcapi", BIBS, "{}");
+        verify(repository, times(2)).save(saved.capture());
+
+        OclcCachedResponse holdings = saved.getAllValues().get(0);
+        OclcCachedResponse bibs = saved.getAllValues().get(1);
+        assertEquals(Duration.ofHours(1), Duration.between(holdings.getFetchedAt(), holdings.getExpiresAt()));
+        assertEquals(Duration.ofHours(24), Duration.between(bibs.getFetchedAt(), bibs.getExpiresAt()));
+    }
+
+    @Test
+    void put_survivesDatabaseErrors() {
+        when(repository.save(any())).thenThrow(new RuntimeException("Connection refused"));
+        cache.put("wcapi", BIBS, "{}");
+
+        assertNotNull(cache.get("wcapi", BIBS));
+    }
+
+}
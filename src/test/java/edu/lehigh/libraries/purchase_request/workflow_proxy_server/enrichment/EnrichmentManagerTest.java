@@ -0,0 +1,142 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.CircuitBreakers;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.WorkflowService;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.util.CircuitBreaker;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EnrichmentManagerTest {
+
+    private final WorkflowService workflowService = mock(WorkflowService.class);
+    private final CircuitBreakers circuitBreakers = mock(CircuitBreakers.class);
+    private final Set<String> stored = new HashSet<String>();
+    private EnrichmentManager manager;
+
+    /**
+     * Reports a refused call the way CircuitBreakers does when the dependency's breaker is open.
+     */
+    @SuppressWarnings("unchecked")
+    private void trackRefusals() {
+        doAnswer(invocation -> {
+            Set<String> refused = invocation.getArgument(0);
+            try {
+                ((Runnable) invocation.getArgument(1)).run();
+            }
+            catch (CircuitBreaker.OpenException e) {
+                refused.add(e.getDependency());
+                throw e;
+            }
+            return null;
+        }).when(circuitBreakers).track(any(Set.class), any(Runnable.class));
+    }
+
+    @BeforeEach
+    void createManager() {
+        trackRefusals();
+        SyncTaskExecutor executor = new SyncTaskExecutor();
+        manager = new EnrichmentManager(workflowService, mock(EnrichmentJobRepository.class),
+            mock(TaskScheduler.class), executor, executor, circuitBreakers, new Config());
+    }
+
+    private static PurchaseRequest purchaseRequest() {
+        PurchaseRequest purchaseRequest = new PurchaseRequest();
+        purchaseRequest.setKey("PR-1");
+        return purchaseRequest;
+    }
+
+    private Set<String> enrich(boolean lastAttempt, boolean mayDefer) {
+        return manager.enrich(purchaseRequest(), null, new HashSet<String>(), lastAttempt, mayDefer, stored::addAll);
+    }
+
+    static class Working implements EnrichmentService {
+        @Override
+        public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
+        }
+    }
+
+    static class Refused implements EnrichmentService {
+        @Override
+        public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
+            throw new CircuitBreaker.OpenException("pricing.example.com");
+        }
+    }
+
+    static class Broken implements EnrichmentService {
+        @Override
+        public void enrichPurchaseRequest(PurchaseRequest purchaseRequest) {
+            throw new IllegalStateException("Unexpected response");
+        }
+    }
+
+    @Test
+    void refusedService_isDeferredWithoutHoldingUpThePass() {
+        manager.addListener(new Working(), 1);
+        manager.addListener(new Refused(), 2);
+
+        assertEquals(Set.of("Refused"), enrich(false, true));
+        assertEquals(Set.of("Working"), stored);
+        verify(workflowService).initialEnrichmentComplete(any());
+    }
+
+    @Test
+    void refusedService_isSkippedOncePastTheMaxDeferral() {
+        manager.addListener(new Working(), 1);
+        manager.addListener(new Refused(), 2);
+
+        assertTrue(enrich(false, false).isEmpty());
+        assertEquals(Set.of("Working"), stored);
+        verify(workflowService).initialEnrichmentComplete(any());
+    }
+
+    @Test
+    void repeatOfDeferredServices_doesNotCompleteInitialEnrichmentAgain() {
+        manager.addListener(new Working(), 1);
+        manager.addListener(new Refused(), 2);
+
+        Set<String> deferred = manager.enrich(purchaseRequest(), List.of("Refused"), new HashSet<String>(),
+            false, true, stored::addAll);
+        assertEquals(Set.of("Refused"), deferred);
+        assertTrue(stored.isEmpty());
+        verify(workflowService, never()).initialEnrichmentComplete(any());
+    }
+
+    @Test
+    void failedService_failsThePassButOthersAreStored() {
+        manager.addListener(new Working(), 1);
+        manager.addListener(new Broken(), 2);
+
+        assertThrows(RuntimeException.class, () -> enrich(false, true));
+        assertEquals(Set.of("Working"), stored);
+        verify(workflowService).flushEnrichments(any());
+        verify(workflowService, never()).initialEnrichmentComplete(any());
+    }
+
+    @Test
+    void failedService_isSkippedOnTheLastAttempt() {
+        manager.addListener(new Working(), 1);
+        manager.addListener(new Broken(), 2);
+
+        assertTrue(enrich(true, true).isEmpty());
+        assertEquals(Set.of("Working"), stored);
+        verify(workflowService, times(1)).initialEnrichmentComplete(any());
+    }
+
+}
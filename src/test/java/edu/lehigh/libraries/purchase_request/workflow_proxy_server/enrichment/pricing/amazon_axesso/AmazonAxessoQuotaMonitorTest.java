@@ -0,0 +1,94 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.pricing.amazon_axesso;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.enrichment.EnrichmentJobRepository;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AmazonAxessoQuotaMonitorTest {
+
+    private final AmazonAxessoQuotaRepository repository = mock(AmazonAxessoQuotaRepository.class);
+    private AmazonAxessoQuotaMonitor monitor;
+
+    @BeforeEach
+    void createMonitor() {
+        Config config = new Config();
+        config.setAmazonAxesso(new Config.AmazonAxesso());
+        config.getAmazonAxesso().setQuotaMonitor(new Config.AmazonAxesso.QuotaMonitor());
+        config.getAmazonAxesso().getQuotaMonitor().setOverageAllowed(2);
+        monitor = new AmazonAxessoQuotaMonitor(config, repository, mock(EnrichmentJobRepository.class));
+
+        AmazonAxessoQuota quota = new AmazonAxessoQuota();
+        quota.setPeriod(monitor.currentPeriod());
+        when(repository.findById(anyString())).thenReturn(Optional.of(quota));
+    }
+
+    @Test
+    void periodStart_onOrAfterResetDay_isThisMonth() {
+        assertEquals(LocalDate.of(2024, 5, 15), AmazonAxessoQuotaMonitor.periodStart(LocalDate.of(2024, 5, 15), 15));
+        assertEquals(LocalDate.of(2024, 5, 15), AmazonAxessoQuotaMonitor.periodStart(LocalDate.of(2024, 5, 31), 15));
+    }
+
+    @Test
+    void periodStart_beforeResetDay_isLastMonth() {
+        assertEquals(LocalDate.of(2024, 4, 15), AmazonAxessoQuotaMonitor.periodStart(LocalDate.of(2024, 5, 14), 15));
+        assertEquals(LocalDate.of(2023, 12, 15), AmazonAxessoQuotaMonitor.periodStart(LocalDate.of(2024, 1, 3), 15));
+    }
+
+    @Test
+    void periodStart_resetDayPastAShortMonth_fallsOnItsLastDay() {
+        assertEquals(LocalDate.of(2023, 2, 28), AmazonAxessoQuotaMonitor.periodStart(LocalDate.of(2023, 2, 28), 31));
+        assertEquals(LocalDate.of(2024, 2, 29), AmazonAxessoQuotaMonitor.periodStart(LocalDate.of(2024, 3, 1), 31));
+        assertEquals(LocalDate.of(2024, 3, 31), AmazonAxessoQuotaMonitor.periodStart(LocalDate.of(2024, 3, 31), 31));
+        assertEquals(LocalDate.of(2024, 4, 30), AmazonAxessoQuotaMonitor.periodStart(LocalDate.of(2024, 4, 30), 31));
+    }
+
+    @Test
+    void acquire_takesFromTheQuotaFirst() {
+        when(repository.takeFromQuota(anyString(), any())).thenReturn(1);
+
+        assertFalse(monitor.acquire().isFromOverage());
+        verify(repository, never()).takeFromOverage(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void acquire_usesTheOverageOnceTheQuotaIsUsedUp() {
+        when(repository.takeFromQuota(anyString(), any())).thenReturn(0);
+        when(repository.takeFromOverage(anyString(), anyInt(), any())).thenReturn(1);
+
+        assertTrue(monitor.acquire().isFromOverage());
+        verify(repository).takeFromOverage(anyString(), eq(2), any());
+    }
+
+    @Test
+    void acquire_refusesOnceTheOverageIsUsedUpToo() {
+        when(repository.takeFromQuota(anyString(), any())).thenReturn(0);
+        when(repository.takeFromOverage(anyString(), anyInt(), any())).thenReturn(0);
+
+        assertThrows(AmazonAxessoQuotaMonitor.QuotaException.class, monitor::acquire);
+    }
+
+    @Test
+    void giveBack_returnsTheCallWhereItCameFrom() {
+        monitor.giveBack(new AmazonAxessoQuotaMonitor.Permit("2024-05-01", false));
+        verify(repository).returnToQuota(eq("2024-05-01"), any());
+
+        monitor.giveBack(new AmazonAxessoQuotaMonitor.Permit("2024-05-01", true));
+        verify(repository).returnToOverage(eq("2024-05-01"), any());
+    }
+
+}
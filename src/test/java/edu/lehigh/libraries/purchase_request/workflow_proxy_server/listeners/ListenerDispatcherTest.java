@@ -0,0 +1,155 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.listeners;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import edu.lehigh.libraries.purchase_request.model.PurchaseRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ListenerDispatcherTest {
+
+    private final ListenerDeadLetterRepository deadLetters = mock(ListenerDeadLetterRepository.class);
+
+    /**
+     * Records every event it's told about, in order.
+     */
+    static class RecordingListener implements WorkflowServiceListener {
+        private final List<String> received = new ArrayList<String>();
+
+        @Override
+        public void purchaseRequested(PurchaseRequest purchaseRequest) {
+            received.add("requested " + purchaseRequest.getKey());
+        }
+
+        @Override
+        public void purchaseApproved(PurchaseRequest purchaseRequest) {
+            received.add("approved " + purchaseRequest.getKey());
+        }
+    }
+
+    /**
+     * Holds tasks until told to run them, or refuses them while rejecting is set.
+     */
+    static class ManualExecutor implements TaskExecutor {
+        private final List<Runnable> tasks = new ArrayList<Runnable>();
+        private boolean rejecting = false;
+
+        @Override
+        public void execute(Runnable task) {
+            if (rejecting) {
+                throw new RejectedExecutionException("Queue full");
+            }
+            tasks.add(task);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    private static PurchaseRequest purchaseRequest(String key) {
+        PurchaseRequest purchaseRequest = new PurchaseRequest();
+        purchaseRequest.setKey(key);
+        return purchaseRequest;
+    }
+
+    @Test
+    void eachListenerGetsEventsInOrder() {
+        ManualExecutor executor = new ManualExecutor();
+        ListenerDispatcher dispatcher = new ListenerDispatcher(executor, deadLetters);
+        RecordingListener first = new RecordingListener();
+        RecordingListener second = new RecordingListener();
+        dispatcher.register(first);
+        dispatcher.register(second);
+
+        dispatcher.publish(ListenerEvent.REQUESTED, purchaseRequest("PR-1"));
+        dispatcher.publish(ListenerEvent.APPROVED, purchaseRequest("PR-1"));
+        dispatcher.publish(ListenerEvent.REQUESTED, purchaseRequest("PR-2"));
+        assertEquals(2, executor.tasks.size());
+        executor.runAll();
+
+        List<String> expected = List.of("requested PR-1", "approved PR-1", "requested PR-2");
+        assertEquals(expected, first.received);
+        assertEquals(expected, second.received);
+        assertEquals(3, dispatcher.snapshot().get("RecordingListener").getDelivered());
+    }
+
+    @Test
+    void rejectedDrain_deadLettersTheWaitingEvents() {
+        ManualExecutor executor = new ManualExecutor();
+        executor.rejecting = true;
+        ListenerDispatcher dispatcher = new ListenerDispatcher(executor, deadLetters);
+        RecordingListener listener = new RecordingListener();
+        dispatcher.register(listener);
+
+        dispatcher.publish(ListenerEvent.REQUESTED, purchaseRequest("PR-1"));
+
+        ArgumentCaptor<ListenerDeadLetter> saved = ArgumentCaptor.forClass(ListenerDeadLetter.class);
+        verify(deadLetters).save(saved.capture());
+        assertEquals("RecordingListener", saved.getValue().getListener());
+        assertEquals(ListenerEvent.REQUESTED, saved.getValue().getEvent());
+        assertEquals("PR-1", saved.getValue().getPurchaseRequestKey());
+        assertEquals(0, dispatcher.snapshot().get("RecordingListener").getQueued());
+        assertEquals(1, dispatcher.snapshot().get("RecordingListener").getDeadLettered());
+
+        executor.rejecting = false;
+        dispatcher.publish(ListenerEvent.APPROVED, purchaseRequest("PR-1"));
+        executor.runAll();
+        assertEquals(List.of("approved PR-1"), listener.received);
+        verify(deadLetters, times(1)).save(saved.capture());
+    }
+
+    @Test
+    void synchronousExecutor_deliversAtOnce() {
+        ListenerDispatcher dispatcher = new ListenerDispatcher(new SyncTaskExecutor(), deadLetters);
+        RecordingListener listener = new RecordingListener();
+        dispatcher.register(listener);
+
+        dispatcher.publish(ListenerEvent.REQUESTED, purchaseRequest("PR-1"));
+        assertEquals(List.of("requested PR-1"), listener.received);
+        verify(deadLetters, never()).save(any());
+    }
+
+    @Test
+    void onHandled_runsOnceEveryListenerHasTheEvent() {
+        ManualExecutor executor = new ManualExecutor();
+        ListenerDispatcher dispatcher = new ListenerDispatcher(executor, deadLetters);
+        dispatcher.register(new RecordingListener());
+        dispatcher.register(new RecordingListener());
+        List<String> handled = new ArrayList<String>();
+
+        dispatcher.publish(ListenerEvent.APPROVED, purchaseRequest("PR-1"), () -> handled.add("PR-1"));
+        assertTrue(handled.isEmpty());
+        executor.runAll();
+        assertEquals(List.of("PR-1"), handled);
+    }
+
+    @Test
+    void onHandled_neverRunsIfADeadLetterIsLost() {
+        ManualExecutor executor = new ManualExecutor();
+        executor.rejecting = true;
+        when(deadLetters.save(any())).thenThrow(new RuntimeException("Connection refused"));
+        ListenerDispatcher dispatcher = new ListenerDispatcher(executor, deadLetters);
+        dispatcher.register(new RecordingListener());
+        List<String> handled = new ArrayList<String>();
+
+        dispatcher.publish(ListenerEvent.APPROVED, purchaseRequest("PR-1"), () -> handled.add("PR-1"));
+        assertTrue(handled.isEmpty());
+    }
+
+}
@@ -0,0 +1,30 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PurchaseRequestIndexTest {
+
+    @Test
+    void normalizeIsbns_keepsEveryIsbnInTheField() {
+        Set<String> isbns = PurchaseRequestIndex.normalizeIsbns("978-0-306-40615-7; 0-306-40615-x, 9780306406157 (pbk.)");
+
+        assertEquals(List.of("9780306406157", "030640615X"), List.copyOf(isbns));
+    }
+
+    @Test
+    void normalizeIsbns_singleIsbn() {
+        assertEquals(Set.of("9780306406157"), PurchaseRequestIndex.normalizeIsbns("978-0306406157"));
+    }
+
+    @Test
+    void normalizeIsbns_nothingToIndex() {
+        assertTrue(PurchaseRequestIndex.normalizeIsbns(null).isEmpty());
+        assertTrue(PurchaseRequestIndex.normalizeIsbns(" ; ").isEmpty());
+    }
+
+}
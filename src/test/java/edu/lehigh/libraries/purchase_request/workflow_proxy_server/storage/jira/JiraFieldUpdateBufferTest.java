@@ -0,0 +1,146 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.jira;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.connection.JiraConnection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JiraFieldUpdateBufferTest {
+
+    private static final String KEY = "PR-1";
+
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    private final List<JsonObject> sent = new ArrayList<JsonObject>();
+
+    @BeforeEach
+    void startScheduler() {
+        scheduler.initialize();
+    }
+
+    @AfterEach
+    void stopScheduler() {
+        scheduler.shutdown();
+    }
+
+    private JiraFieldUpdateBuffer buffer(BiConsumer<String, JsonObject> writer) {
+        return new JiraFieldUpdateBuffer(writer, scheduler, 100, Duration.ofHours(1));
+    }
+
+    private void add(JiraFieldUpdateBuffer buffer, String fieldName, String value) {
+        buffer.add(KEY, fieldName, new JsonPrimitive(value));
+    }
+
+    private static JsonObject fields(JsonObject issueChanges) {
+        return issueChanges.getAsJsonObject("fields");
+    }
+
+    @Test
+    void fieldsAreSentTogether() {
+        JiraFieldUpdateBuffer buffer = buffer((key, changes) -> sent.add(changes));
+        add(buffer, "a", "1");
+        add(buffer, "b", "2");
+        buffer.flush(KEY);
+
+        assertEquals(1, sent.size());
+        assertEquals(2, fields(sent.get(0)).size());
+    }
+
+    @Test
+    void badRequest_sendsTheFieldsJiraDidNotReject() {
+        JiraFieldUpdateBuffer buffer = buffer((key, changes) -> {
+            sent.add(changes);
+            if (fields(changes).has("bad")) {
+                throw new JiraConnection.BadRequestException("{\"errors\":{\"bad\":\"Not a number\"}}");
+            }
+        });
+        add(buffer, "a", "1");
+        add(buffer, "bad", "x");
+        add(buffer, "b", "2");
+        buffer.flush(KEY);
+
+        assertEquals(2, sent.size());
+        JsonObject retried = fields(sent.get(1));
+        assertTrue(retried.has("a"));
+        assertTrue(retried.has("b"));
+        assertFalse(retried.has("bad"));
+    }
+
+    @Test
+    void badRequestWithoutFieldErrors_sendsFieldsOneAtATime() {
+        JiraFieldUpdateBuffer buffer = buffer((key, changes) -> {
+            sent.add(changes);
+            if (fields(changes).has("bad")) {
+                throw new JiraConnection.BadRequestException("Bad Request");
+            }
+        });
+        add(buffer, "a", "1");
+        add(buffer, "bad", "x");
+        buffer.flush(KEY);
+
+        assertEquals(3, sent.size());
+        assertEquals(1, fields(sent.get(1)).size());
+        assertEquals(1, fields(sent.get(2)).size());
+    }
+
+    @Test
+    void otherFailureOneAtATime_requeuesOnlyTheFieldsNotWritten() {
+        List<Boolean> fail = new ArrayList<Boolean>(List.of(true));
+        JiraFieldUpdateBuffer buffer = buffer((key, changes) -> {
+            if (fields(changes).has("bad")) {
+                throw new JiraConnection.BadRequestException("Bad Request");
+            }
+            if (fields(changes).has("c") && fail.remove(0)) {
+                throw new RuntimeException("Connection reset");
+            }
+            sent.add(changes);
+        });
+        add(buffer, "a", "1");
+        add(buffer, "bad", "x");
+        add(buffer, "c", "3");
+        assertThrows(RuntimeException.class, () -> buffer.flush(KEY));
+        assertEquals(1, sent.size());
+        assertTrue(fields(sent.get(0)).has("a"));
+
+        fail.add(false);
+        buffer.flush(KEY);
+
+        assertEquals(2, sent.size());
+        assertEquals(1, fields(sent.get(1)).size());
+        assertTrue(fields(sent.get(1)).has("c"));
+    }
+
+    @Test
+    void otherFailure_requeuesFieldsWithoutOverwritingNewerValues() {
+        List<Boolean> fail = new ArrayList<Boolean>(List.of(true));
+        JiraFieldUpdateBuffer buffer = buffer((key, changes) -> {
+            if (fail.remove(0)) {
+                throw new RuntimeException("Connection reset");
+            }
+            sent.add(changes);
+        });
+        add(buffer, "a", "1");
+        add(buffer, "b", "2");
+        assertThrows(RuntimeException.class, () -> buffer.flush(KEY));
+
+        fail.add(false);
+        add(buffer, "a", "newer");
+        buffer.flush(KEY);
+
+        assertEquals(1, sent.size());
+        assertEquals("newer", fields(sent.get(0)).get("a").getAsString());
+        assertEquals("2", fields(sent.get(0)).get("b").getAsString());
+    }
+
+}
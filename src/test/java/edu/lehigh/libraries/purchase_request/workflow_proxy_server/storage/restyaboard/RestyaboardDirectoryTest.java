@@ -0,0 +1,64 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.storage.restyaboard;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import edu.lehigh.libraries.purchase_request.workflow_proxy_server.config.Config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RestyaboardDirectoryTest {
+
+    private static final String LISTS_URL = "/boards/7/lists.json";
+
+    private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+    private RestyaboardConnection connection;
+    private RestyaboardDirectory directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenAnswer(invocation -> now);
+        connection = mock(RestyaboardConnection.class);
+        when(connection.executeGet(LISTS_URL)).thenReturn(new JSONObject()
+            .put("data", new JSONArray().put(new JSONObject().put("id", 1L).put("name", "Requested"))));
+        when(connection.executeGetForArray(anyString(), anyMap())).thenReturn(new JSONArray());
+
+        Config.Restyaboard config = new Config.Restyaboard();
+        config.setDirectoryRefreshInterval(Duration.ofMinutes(10));
+        directory = new RestyaboardDirectory(connection, 7, config, clock);
+    }
+
+    @Test
+    void unknownList_reloadsAtMostOncePerInterval() throws Exception {
+        assertEquals("Requested", directory.getListName(1));
+        assertNull(directory.getListName(2));
+        assertNull(directory.getListId("Deleted"));
+        verify(connection, times(1)).executeGet(LISTS_URL);
+
+        now = now.plus(Duration.ofMinutes(1));
+        assertNull(directory.getListName(2));
+        verify(connection, times(2)).executeGet(LISTS_URL);
+    }
+
+    @Test
+    void unknownUser_isRemembered() throws Exception {
+        assertNull(directory.getUserId("nobody"));
+        assertNull(directory.getUserId("nobody"));
+        verify(connection, times(1)).executeGetForArray("/users/search.json", Map.of("q", "nobody"));
+    }
+
+}
@@ -0,0 +1,79 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final ExpiringCacheTest.MutableClock clock = new ExpiringCacheTest.MutableClock();
+
+    private CircuitBreaker breaker(int halfOpenCalls) {
+        return new CircuitBreaker("test", 3, Duration.ofSeconds(30), halfOpenCalls, clock);
+    }
+
+    private void fail(CircuitBreaker breaker, int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.recordFailure();
+        }
+    }
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        CircuitBreaker breaker = breaker(1);
+        fail(breaker, 2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        fail(breaker, 1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(CircuitBreaker.OpenException.class, breaker::acquire);
+        assertEquals(1, breaker.getRejected());
+    }
+
+    @Test
+    void successResetsTheFailureCount() {
+        CircuitBreaker breaker = breaker(1);
+        fail(breaker, 2);
+        breaker.recordSuccess();
+        fail(breaker, 2);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void halfOpen_letsTrialCallsThrough_andClosesWhenTheySucceed() {
+        CircuitBreaker breaker = breaker(2);
+        fail(breaker, 3);
+
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void halfOpen_reopensOnFailure() {
+        CircuitBreaker breaker = breaker(1);
+        fail(breaker, 3);
+
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(breaker.tryAcquire());
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2, breaker.getOpened());
+        clock.advance(Duration.ofSeconds(29));
+        assertFalse(breaker.tryAcquire());
+    }
+
+}
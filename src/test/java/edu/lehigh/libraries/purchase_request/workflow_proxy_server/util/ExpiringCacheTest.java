@@ -0,0 +1,143 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    /**
+     * Clock that only moves when told to.
+     */
+    static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    void get_returnsValueWithinTtl() {
+        MutableClock clock = new MutableClock();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1), clock);
+
+        cache.put("PR-1", "value");
+        clock.advance(Duration.ofSeconds(59));
+
+        assertEquals("value", cache.get("PR-1"));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void put_withOwnTtl_expiresSooner() {
+        MutableClock clock = new MutableClock();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofHours(1), clock);
+
+        cache.put("PR-1", "value", Duration.ofMinutes(1));
+        clock.advance(Duration.ofMinutes(1));
+
+        assertNull(cache.get("PR-1"));
+    }
+
+    @Test
+    void get_expiresAfterTtl() {
+        MutableClock clock = new MutableClock();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1), clock);
+
+        cache.put("PR-1", "value");
+        clock.advance(Duration.ofMinutes(1));
+
+        assertNull(cache.get("PR-1"));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedWhenFull() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(2, Duration.ofMinutes(1));
+
+        cache.put("PR-1", "one");
+        cache.put("PR-2", "two");
+        cache.get("PR-1");
+        cache.put("PR-3", "three");
+
+        assertEquals("one", cache.get("PR-1"));
+        assertNull(cache.get("PR-2"));
+        assertEquals("three", cache.get("PR-3"));
+    }
+
+    @Test
+    void invalidate_removesOnlyThatKey() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1));
+
+        cache.put("PR-1", "one");
+        cache.put("PR-2", "two");
+        cache.invalidate("PR-1");
+
+        assertNull(cache.get("PR-1"));
+        assertEquals("two", cache.get("PR-2"));
+    }
+
+    @Test
+    void put_skipsValueLoadedBeforeInvalidation() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1));
+
+        long generation = cache.getGeneration();
+        cache.invalidate("PR-1");
+        cache.put("PR-1", "stale", generation);
+
+        assertNull(cache.get("PR-1"));
+
+        cache.put("PR-1", "fresh", cache.getGeneration());
+        assertEquals("fresh", cache.get("PR-1"));
+    }
+
+    @Test
+    void put_zeroMaxSizeDisablesCaching() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(0, Duration.ofMinutes(1));
+
+        cache.put("PR-1", "one");
+
+        assertNull(cache.get("PR-1"));
+    }
+
+    @Test
+    void keys_skipsExpiredEntriesInLeastRecentlyUsedOrder() {
+        MutableClock clock = new MutableClock();
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, Duration.ofMinutes(1), clock);
+
+        cache.put("PR-1", "one");
+        clock.advance(Duration.ofSeconds(30));
+        cache.put("PR-2", "two");
+        cache.put("PR-3", "three");
+        cache.get("PR-2");
+
+        assertEquals(List.of("PR-1", "PR-3", "PR-2"), cache.keys());
+
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(List.of("PR-3", "PR-2"), cache.keys());
+    }
+}
@@ -177,6 +177,21 @@ class RetryUtilTest {
         assertTrue(exception.getMessage().contains("Operation failed after retries"));
     }
 
+    @Test
+    void executeWithRetry_openCircuitBreakerIsNotRetried() {
+        AtomicInteger attempts = new AtomicInteger(0);
+
+        CircuitBreaker.OpenException exception = assertThrows(CircuitBreaker.OpenException.class, () -> {
+            RetryUtil.executeWithRetry(() -> {
+                attempts.incrementAndGet();
+                throw new RuntimeException(new CircuitBreaker.OpenException("test"));
+            }, 4, 10, 100);
+        });
+
+        assertEquals(1, attempts.get());
+        assertEquals("test", exception.getDependency());
+    }
+
     @Test
     void executeWithRetry_runnable_successOnFirstAttempt() {
         AtomicInteger attempts = new AtomicInteger(0);
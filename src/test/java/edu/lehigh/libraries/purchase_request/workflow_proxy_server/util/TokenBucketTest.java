@@ -0,0 +1,95 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private void advance(Duration duration) {
+        now.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void burstGoesImmediately_thenCallersQueueAtTheRate() {
+        TokenBucket bucket = new TokenBucket(2, 2, now::get);
+
+        assertEquals(Duration.ZERO, bucket.reserve());
+        assertEquals(Duration.ZERO, bucket.reserve());
+        assertEquals(Duration.ofMillis(500), bucket.reserve());
+        assertEquals(Duration.ofMillis(1000), bucket.reserve());
+    }
+
+    @Test
+    void refillsOverTime_upToTheBurst() {
+        TokenBucket bucket = new TokenBucket(2, 2, now::get);
+        bucket.reserve();
+        bucket.reserve();
+
+        advance(Duration.ofSeconds(10));
+        assertEquals(2.0, bucket.getAvailable(), 0.0001);
+    }
+
+    @Test
+    void releaseReturnsAnUnusedPermit() {
+        TokenBucket bucket = new TokenBucket(1, 1, now::get);
+        bucket.reserve();
+        bucket.release();
+
+        assertEquals(Duration.ZERO, bucket.reserve());
+    }
+
+    @Test
+    void throttled_pausesAndHalvesTheRate() {
+        TokenBucket bucket = new TokenBucket(4, 4, now::get);
+        bucket.throttled(Duration.ofSeconds(3));
+
+        assertEquals(2.0, bucket.getRate(), 0.0001);
+        assertEquals(Duration.ofMillis(3500), bucket.reserve());
+    }
+
+    @Test
+    void succeeded_recoversTowardTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(4, 4, now::get);
+        bucket.throttled(Duration.ZERO);
+        bucket.throttled(Duration.ZERO);
+        assertEquals(1.0, bucket.getRate(), 0.0001);
+
+        for (int i = 0; i < 100; i++) {
+            bucket.succeeded();
+        }
+        assertEquals(4.0, bucket.getRate(), 0.0001);
+    }
+
+    @Test
+    void limitRemaining_capsTokensAndPausesWhenUsedUp() {
+        TokenBucket bucket = new TokenBucket(5, 5, now::get);
+
+        bucket.limitRemaining(1, Duration.ofSeconds(10));
+        assertEquals(1.0, bucket.getAvailable(), 0.0001);
+
+        bucket.limitRemaining(0, Duration.ofSeconds(10));
+        assertEquals(Duration.ofMillis(10200), bucket.reserve());
+    }
+
+    @Test
+    void limitRemaining_capsRefillsUntilTheReset() {
+        TokenBucket bucket = new TokenBucket(5, 5, now::get);
+        bucket.limitRemaining(2, Duration.ofSeconds(10));
+        assertEquals(Duration.ZERO, bucket.reserve());
+        assertEquals(Duration.ZERO, bucket.reserve());
+
+        advance(Duration.ofSeconds(5));
+        assertEquals(0.0, bucket.getAvailable(), 0.0001);
+        assertEquals(Duration.ofMillis(5200), bucket.reserve());
+
+        advance(Duration.ofSeconds(10));
+        assertEquals(5.0, bucket.getAvailable(), 0.0001);
+    }
+
+}
@@ -0,0 +1,35 @@
+package edu.lehigh.libraries.purchase_request.workflow_proxy_server.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsTest {
+
+    private static final boolean JAVA_21 = Runtime.version().feature() >= 21;
+
+    @Test
+    void availableFromJava21() {
+        assertEquals(JAVA_21, VirtualThreads.isAvailable());
+    }
+
+    @Test
+    void executorRunsTasksOnNamedVirtualThreads() throws Exception {
+        if (!JAVA_21) {
+            assertThrows(IllegalStateException.class, () -> VirtualThreads.newThreadPerTaskExecutor("Test-"));
+            return;
+        }
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("Test-");
+        try {
+            Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+            assertTrue(name.get().startsWith("Test-"));
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+}